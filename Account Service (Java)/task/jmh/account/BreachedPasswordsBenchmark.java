@@ -0,0 +1,83 @@
+package account;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+Lookups against an index of `size` random hashes plus one known password, built with BreachedPasswordIndexBuilder.
+"miss" is the common signup case and should stop at the filter; "hit" also pays for the binary search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BreachedPasswordsBenchmark {
+    private static final String BREACHED = "breachedPassword123";
+
+    @Param({"1000000", "10000000"})
+    int size;
+
+    private Path dir;
+    private BreachedPasswords breachedPasswords;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException, NoSuchAlgorithmException {
+        dir = Files.createTempDirectory("breached");
+        Random random = new Random(42);
+        byte[][] hashes = new byte[size + 1][];
+        for (int i = 0; i < size; i++) {
+            hashes[i] = new byte[BreachedPasswords.HASH_LENGTH];
+            random.nextBytes(hashes[i]);
+        }
+        hashes[size] = MessageDigest.getInstance("SHA-1").digest(BREACHED.getBytes(StandardCharsets.UTF_8));
+        Arrays.sort(hashes, Arrays::compareUnsigned);
+        HexFormat hex = HexFormat.of().withUpperCase();
+        try (BufferedWriter out = Files.newBufferedWriter(dir.resolve("list.txt"))) {
+            for (byte[] hash : hashes) {
+                out.write(hex.formatHex(hash));
+                out.newLine();
+            }
+        }
+        BreachedPasswordIndexBuilder.main(new String[]{dir.resolve("list.txt").toString(),
+                dir.resolve("filter").toString(), dir.resolve("hashes").toString()});
+        breachedPasswords = new BreachedPasswords(dir.resolve("filter").toString(), dir.resolve("hashes").toString());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        breachedPasswords = null;
+        try (var files = Files.list(dir)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public boolean miss() {
+        return breachedPasswords.contains("aVeryLongButHarmlessPassword" + (next++ & 1023));
+    }
+
+    @Benchmark
+    public boolean hit() {
+        return breachedPasswords.contains(BREACHED);
+    }
+
+    @Benchmark
+    public boolean builtIn() {
+        return breachedPasswords.contains("PasswordForDecember");
+    }
+}
@@ -0,0 +1,56 @@
+package account;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+Failed logins and lock checks hitting the counter from several request threads at once, spread over `users` emails.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BruteForceCounterBenchmark {
+    @Param({"16", "100000"})
+    int users;
+
+    private BruteForceCounter counter;
+    private String[] emails;
+
+    @Setup
+    public void setUp() {
+        counter = new BruteForceCounter(new SimpleMeterRegistry(), email -> true, 5, Duration.ofHours(1), System::nanoTime);
+        emails = new String[users];
+        for (int i = 0; i < users; i++) emails[i] = "user" + i + "@acme.com";
+    }
+
+    private String email() {
+        return emails[ThreadLocalRandom.current().nextInt(emails.length)];
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public void increment() {
+        counter.increment(email());
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public boolean isBlocked() {
+        return counter.isBlocked(email());
+    }
+
+    @Benchmark
+    @Group("contended")
+    public void reset() {
+        counter.reset(email());
+    }
+}
@@ -0,0 +1,131 @@
+package account;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/*
+Load test over HTTP against an H2 file database, with the default settings and with the prod profile.
+Clients authenticate with bearer tokens so BCrypt doesn't dominate the numbers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class DatasourceProfileBenchmark {
+    private static final int EMPLOYEES = 100;
+    private static final int EVENTS = 10_000;
+
+    @Param({"default", "prod"})
+    String profile;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final AtomicInteger month = new AtomicInteger();
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+    private String accountantToken;
+    private String auditorToken;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("account-load");
+        String db = directory.resolve("service_db").toString();
+        context = new SpringApplicationBuilder(AccountServiceApplication.class)
+                .profiles(profile)
+                .run(profile.equals("prod") ? "--account.db.file=" + db : "--spring.datasource.url=jdbc:h2:file:" + db,
+                        "--server.port=0",
+                        "--server.ssl.enabled=false",
+                        "--logging.level.root=warn");
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        String password = context.getBean(PasswordEncoder.class).encode("loadTestPassword");
+        List<User> users = new ArrayList<>();
+        users.add(new User("Load", "Accountant", "accountant@acme.com", password, Set.of(Role.ACCOUNTANT)));
+        users.add(new User("Load", "Auditor", "auditor@acme.com", password, Set.of(Role.USER, Role.AUDITOR)));
+        for (int i = 0; i < EMPLOYEES; i++) {
+            users.add(new User("Employee", String.valueOf(i), "employee" + i + "@acme.com", password, Set.of(Role.USER)));
+        }
+        users = context.getBean(UserRepository.class).saveAll(users);
+        TokenService tokenService = context.getBean(TokenService.class);
+        accountantToken = tokenService.issue(users.get(0)).token();
+        auditorToken = tokenService.issue(users.get(1)).token();
+
+        List<SecurityEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            SecurityEvent event = new SecurityEvent();
+            event.date = LocalDate.of(2021, 1, 1).plusDays(i % 365);
+            event.action = Action.values()[i % Action.values().length];
+            event.subject = "employee" + i % EMPLOYEES + "@acme.com";
+            event.object = "/api/empl/payment";
+            event.path = "/api/empl/payment";
+            events.add(event);
+        }
+        context.getBean(SecurityEventRepository.class).saveAll(events);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearPayrolls() {
+        context.getBean(JdbcTemplate.class).update("delete from \"payroll\"");
+        month.set(0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int uploadPayroll() throws Exception {
+        int m = month.getAndIncrement();
+        String period = "%02d-%04d".formatted(m % 12 + 1, 2000 + m / 12);
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < EMPLOYEES; i++) {
+            if (i > 0) body.append(',');
+            body.append("{\"employee\":\"employee").append(i).append("@acme.com\",\"period\":\"").append(period)
+                    .append("\",\"salary\":").append(100_000 + i).append('}');
+        }
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/acct/payments"))
+                .header("Authorization", "Bearer " + accountantToken)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString())));
+    }
+
+    @Benchmark
+    public int listEvents() throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/security/events/?subject=employee7@acme.com"))
+                .header("Authorization", "Bearer " + auditorToken)
+                .GET());
+    }
+
+    private int send(HttpRequest.Builder request) throws Exception {
+        HttpResponse<Void> response = client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) throw new IllegalStateException("HTTP " + response.statusCode());
+        return response.statusCode();
+    }
+}
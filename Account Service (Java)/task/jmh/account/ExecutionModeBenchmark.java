@@ -0,0 +1,106 @@
+package account;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/*
+Platform against virtual request threads, with far more concurrent clients (64) than Tomcat platform threads (16).
+SampleTime reports the latency distribution including p0.99; the virtual mode needs a Java 21 runtime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class ExecutionModeBenchmark {
+    private static final int EMPLOYEES = 100;
+    private static final int EVENTS = 10_000;
+
+    @Param({"false", "true"})
+    boolean virtualThreads;
+
+    private final HttpClient client = HttpClient.newBuilder().executor(Executors.newCachedThreadPool()).build();
+    private ConfigurableApplicationContext context;
+    private String baseUrl;
+    private String employeeToken;
+    private String auditorToken;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AccountServiceApplication.class)
+                .run("--account.virtual-threads.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=16",
+                        "--spring.datasource.url=jdbc:h2:mem:execution-mode;DB_CLOSE_DELAY=-1",
+                        "--server.port=0",
+                        "--server.ssl.enabled=false",
+                        "--logging.level.root=warn");
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        List<User> users = new ArrayList<>();
+        users.add(new User("Load", "Auditor", "auditor@acme.com", "", Set.of(Role.USER, Role.AUDITOR)));
+        for (int i = 0; i < EMPLOYEES; i++) {
+            users.add(new User("Employee", String.valueOf(i), "employee" + i + "@acme.com", "", Set.of(Role.USER)));
+        }
+        users = context.getBean(UserRepository.class).saveAll(users);
+        List<Payroll> payrolls = new ArrayList<>();
+        for (User user : users.subList(1, users.size())) {
+            for (int month = 0; month < 120; month++) {
+                payrolls.add(new Payroll(user, YearMonth.of(2011, 1).plusMonths(month), 100_000 + month));
+            }
+        }
+        context.getBean(PayrollRepository.class).saveAll(payrolls);
+        List<SecurityEvent> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            SecurityEvent event = new SecurityEvent();
+            event.date = LocalDate.of(2021, 1, 1).plusDays(i % 365);
+            event.action = Action.LOGIN_FAILED;
+            event.subject = "employee" + i % EMPLOYEES + "@acme.com";
+            event.object = "/api/empl/payment";
+            event.path = "/api/empl/payment";
+            events.add(event);
+        }
+        context.getBean(SecurityEventRepository.class).saveAll(events);
+        TokenService tokenService = context.getBean(TokenService.class);
+        auditorToken = tokenService.issue(users.get(0)).token();
+        employeeToken = tokenService.issue(users.get(1)).token();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int paymentPage() throws Exception {
+        // a period range bypasses the payslip cache, so every request reads the database
+        return send(baseUrl + "/api/empl/payment?from=01-2015&limit=24", employeeToken);
+    }
+
+    @Benchmark
+    public int listEvents() throws Exception {
+        return send(baseUrl + "/api/security/events/?subject=employee7@acme.com", auditorToken);
+    }
+
+    private int send(String uri, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri)).header("Authorization", "Bearer " + token).GET().build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) throw new IllegalStateException("HTTP " + response.statusCode());
+        return response.statusCode();
+    }
+}
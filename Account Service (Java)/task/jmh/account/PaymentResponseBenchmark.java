@@ -0,0 +1,83 @@
+package account;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Payment history of one employee: the old record (String.formatted salary, @JsonFormat period) against
+EmployeeController.PaymentResponse with PaymentResponseSerializer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentResponseBenchmark {
+    @Param({"12", "120"})
+    int rows;
+
+    private final ObjectWriter writer = JsonMapper.builder().findAndAddModules().build().writer();
+    private final User user = new User("John", "Doe", "johndoe@acme.com", null, null);
+    private List<Payroll> payrolls;
+    private List<LegacyPaymentResponse> legacyResponses;
+    private List<EmployeeController.PaymentResponse> responses;
+
+    @Setup
+    public void setUp() {
+        payrolls = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            payrolls.add(new Payroll(user, YearMonth.of(2021, 1).minusMonths(i), 123456L + i * 101L));
+        }
+        legacyResponses = legacyConstruct();
+        responses = construct();
+    }
+
+    @Benchmark
+    public List<LegacyPaymentResponse> legacyConstruct() {
+        List<LegacyPaymentResponse> result = new ArrayList<>(payrolls.size());
+        for (Payroll payroll : payrolls) result.add(new LegacyPaymentResponse(user, payroll));
+        return result;
+    }
+
+    @Benchmark
+    public List<EmployeeController.PaymentResponse> construct() {
+        List<EmployeeController.PaymentResponse> result = new ArrayList<>(payrolls.size());
+        for (Payroll payroll : payrolls) result.add(new EmployeeController.PaymentResponse(user, payroll));
+        return result;
+    }
+
+    @Benchmark
+    public byte[] legacySerialize() throws Exception {
+        return writer.writeValueAsBytes(legacyResponses);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return writer.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] legacyConstructAndSerialize() throws Exception {
+        return writer.writeValueAsBytes(legacyConstruct());
+    }
+
+    @Benchmark
+    public byte[] constructAndSerialize() throws Exception {
+        return writer.writeValueAsBytes(construct());
+    }
+
+    public record LegacyPaymentResponse(String name, String lastname, @JsonFormat(pattern = "MMMM-yyyy", locale = "en") YearMonth period,
+                                        String salary) {
+        LegacyPaymentResponse(User user, Payroll payroll) {
+            this(user.name, user.lastname, payroll.period, "%d dollar(s) %d cent(s)".formatted(payroll.salary / 100, payroll.salary % 100));
+        }
+    }
+}
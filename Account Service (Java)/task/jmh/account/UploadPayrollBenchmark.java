@@ -0,0 +1,70 @@
+package account;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+One uploadPayroll call through the controller proxy (validation, transaction, lookups, duplicate checks and the insert)
+against an in-memory H2 database. Every invocation uploads the next period for all employees; the table is emptied per iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UploadPayrollBenchmark {
+    @Param({"100", "1000"})
+    int employees;
+
+    private ConfigurableApplicationContext context;
+    private AccountantController accountantController;
+    private JdbcTemplate jdbcTemplate;
+    private YearMonth period;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AccountServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--logging.level.root=warn");
+        accountantController = context.getBean(AccountantController.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<User> users = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            users.add(new User("Employee", String.valueOf(i), "employee" + i + "@acme.com", "", Set.of(Role.USER)));
+        }
+        context.getBean(UserRepository.class).saveAll(users);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearPayrolls() {
+        jdbcTemplate.update("delete from \"payroll\"");
+        period = YearMonth.of(2000, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccountantController.UploadPayrollResponse uploadPayroll() {
+        List<AccountantController.PayrollRequest> batch = new ArrayList<>(employees);
+        for (int i = 0; i < employees; i++) {
+            batch.add(new AccountantController.PayrollRequest("employee" + i + "@acme.com", period, 100_000 + i));
+        }
+        period = period.plusMonths(1);
+        return accountantController.uploadPayroll(batch);
+    }
+}
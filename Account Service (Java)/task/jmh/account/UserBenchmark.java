@@ -0,0 +1,42 @@
+package account;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserBenchmark {
+    private final User user = new User("John", "Doe", "johndoe@acme.com", null, Set.of(Role.USER, Role.ACCOUNTANT));
+    // validatePassword uses none of the other collaborators
+    private final UserDetailsService userDetailsService = new UserDetailsService(null, null, null, null,
+            new BreachedPasswords("", ""), null, new SimpleMeterRegistry());
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public void validatePassword() {
+        userDetailsService.validatePassword("aVeryLongButHarmlessPassword");
+    }
+
+    @Benchmark
+    public boolean validateBreachedPassword() {
+        try {
+            userDetailsService.validatePassword("PasswordForDecember");
+            return false;
+        } catch (UserDetailsService.PasswordException e) {
+            return true;
+        }
+    }
+}
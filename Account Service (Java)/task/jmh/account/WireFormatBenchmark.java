@@ -0,0 +1,70 @@
+package account;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+The formats offered by ContentNegotiationConfig on the two bulk payloads: a page of audit events written, and a
+payroll upload read. "json" is the indented default. Run with -prof gc to compare sizes too: writeEvents
+allocates about its output's size per operation (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+    private static final TypeReference<List<AccountantController.PayrollRequest>> UPLOAD = new TypeReference<>() {
+    };
+
+    @Param({"json", "compact", "cbor", "smile"})
+    String format;
+
+    @Param({"1000"})
+    int rows;
+
+    private ObjectMapper mapper;
+    private List<SecurityController.SecurityEventResponse> events;
+    private byte[] upload;
+
+    @Setup
+    public void setUp() throws Exception {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        mapper = new ObjectMapper(factory).findAndRegisterModules();
+        if (format.equals("json")) mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        events = new ArrayList<>(rows);
+        List<AccountantController.PayrollRequest> payrolls = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            events.add(new SecurityController.SecurityEventResponse(i + 1, LocalDate.of(2021, 1, 1).plusDays(i % 365),
+                    Action.LOGIN_FAILED, "johndoe" + i + "@acme.com", "/api/empl/payment", "/api/empl/payment"));
+            payrolls.add(new AccountantController.PayrollRequest("johndoe" + i + "@acme.com", YearMonth.of(2021, 1).minusMonths(i % 120), 123456L + i));
+        }
+        upload = mapper.writeValueAsBytes(payrolls);
+    }
+
+    @Benchmark
+    public byte[] writeEvents() throws Exception {
+        return mapper.writeValueAsBytes(events);
+    }
+
+    @Benchmark
+    public List<AccountantController.PayrollRequest> readUpload() throws Exception {
+        return mapper.readValue(upload, UPLOAD);
+    }
+}
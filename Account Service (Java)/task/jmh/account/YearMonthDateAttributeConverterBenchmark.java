@@ -0,0 +1,29 @@
+package account;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class YearMonthDateAttributeConverterBenchmark {
+    private final Payroll.YearMonthDateAttributeConverter converter = new Payroll.YearMonthDateAttributeConverter();
+    private final YearMonth period = YearMonth.of(2021, 3);
+    private final Date date = Date.valueOf("2021-03-01");
+
+    @Benchmark
+    public Date convertToDatabaseColumn() {
+        return converter.convertToDatabaseColumn(period);
+    }
+
+    @Benchmark
+    public YearMonth convertToEntityAttribute() {
+        return converter.convertToEntityAttribute(date);
+    }
+}
@@ -1,16 +1,27 @@
 package account;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
@@ -18,27 +29,39 @@ import org.springframework.web.server.ResponseStatusException;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("api/acct")
 @Validated
 public class AccountantController {
     private final PayrollService payrollService;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+    private final Validator validator;
+    private final int batchSize;
 
-    AccountantController(PayrollService payrollService) {
+    AccountantController(PayrollService payrollService, ObjectMapper objectMapper, Validator validator,
+                         MappingJackson2CborHttpMessageConverter cborConverter, MappingJackson2SmileHttpMessageConverter smileConverter,
+                         @Value("${account.payroll.batch-size:500}") int batchSize) {
         this.payrollService = payrollService;
+        this.objectMapper = objectMapper;
+        this.cborMapper = cborConverter.getObjectMapper();
+        this.smileMapper = smileConverter.getObjectMapper();
+        this.validator = validator;
+        this.batchSize = batchSize;
     }
 
     @PostMapping("payments")
     @Transactional
     UploadPayrollResponse uploadPayroll(@RequestBody List<@Valid PayrollRequest> payrollRequests) {
         try {
-            for (PayrollRequest payrollRequest : payrollRequests) {
-                payrollService.addPayroll(payrollRequest.employee, payrollRequest.period, payrollRequest.salary);
-            }
+            payrollService.addPayrolls(payrollRequests);
         } catch (DataIntegrityViolationException e) {
             throw new DuplicatePayrollException();
         } catch (ConstraintViolationException e) {
@@ -47,6 +70,59 @@ public class AccountantController {
         return new UploadPayrollResponse();
     }
 
+    /*
+    Same contract as uploadPayroll, but reads the array one element at a time and writes it in batch-size chunks,
+    so memory stays flat however large the upload is. Use with POST /api/acct/payments?stream.
+    The body may be CBOR or Smile as well, going by its Content-Type; anything else is read as JSON.
+     */
+    @PostMapping(value = "payments", params = "stream")
+    @Transactional
+    UploadPayrollResponse uploadPayrollStream(HttpServletRequest request) throws IOException {
+        try (JsonParser parser = mapperFor(request.getContentType()).createParser(request.getInputStream())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expected a JSON array");
+            }
+            List<PayrollRequest> chunk = new ArrayList<>(batchSize);
+            int index = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                PayrollRequest payrollRequest = parser.readValueAs(PayrollRequest.class);
+                Set<ConstraintViolation<PayrollRequest>> violations = validator.validate(payrollRequest);
+                if (!violations.isEmpty()) {
+                    ConstraintViolation<PayrollRequest> violation = violations.iterator().next();
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "uploadPayroll.payrollRequests[%d].%s: %s"
+                            .formatted(index, violation.getPropertyPath(), violation.getMessage()));
+                }
+                chunk.add(payrollRequest);
+                index++;
+                if (chunk.size() == batchSize) {
+                    payrollService.addPayrolls(chunk);
+                    chunk.clear();
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Expected a JSON array of payrolls");
+            }
+            payrollService.addPayrolls(chunk);
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getOriginalMessage());
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicatePayrollException();
+        }
+        return new UploadPayrollResponse();
+    }
+
+    private ObjectMapper mapperFor(String contentType) {
+        MediaType mediaType;
+        try {
+            mediaType = contentType == null ? MediaType.APPLICATION_JSON : MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return objectMapper;
+        }
+        if (MediaType.APPLICATION_CBOR.includes(mediaType)) return cborMapper;
+        if (ContentNegotiationConfig.SMILE.includes(mediaType)) return smileMapper;
+        return objectMapper;
+    }
+
     @PutMapping("payments")
     UpdatePayrollResponse changeSalary(@RequestBody @Valid PayrollRequest payrollRequest) {
         try {
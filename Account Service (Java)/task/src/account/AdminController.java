@@ -4,20 +4,38 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("api/admin")
 public class AdminController {
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final Set<String> SORTABLE = Set.of("id", "name", "lastname", "email");
+
     private final UserDetailsService userDetailsService;
     private final UserRepository userRepository;
+    private final int maxPageSize;
 
-    AdminController(UserDetailsService userDetailsService, UserRepository userRepository) {
+    AdminController(UserDetailsService userDetailsService, UserRepository userRepository,
+                    @Value("${account.admin.users.max-page-size:1000}") int maxPageSize) {
         this.userDetailsService = userDetailsService;
         this.userRepository = userRepository;
+        this.maxPageSize = maxPageSize;
     }
 
     @PutMapping("user/role")
@@ -36,9 +54,50 @@ public class AdminController {
         return new UserDeletedResponse(email);
     }
 
+    /*
+    Users with their roles in two queries, whatever the page size. Without page/size this is every user;
+    with them one page, and X-Total-Count holds the number of users. sort is "field" or "field,desc", ties broken by id.
+     */
     @GetMapping("user/")
-    List<UserResponse> listUsers() {
-        return userDetailsService.findAll().stream().map(UserResponse::new).toList();
+    ResponseEntity<List<UserResponse>> listUsers(@RequestParam(required = false) Integer page,
+                                                 @RequestParam(required = false) Integer size,
+                                                 @RequestParam(defaultValue = "id") String sort) {
+        Sort order = sort(sort);
+        var response = ResponseEntity.ok();
+        List<UserRepository.UserSummary> users;
+        List<UserRepository.UserIdAndRole> roles;
+        if (page == null && size == null) {
+            users = userRepository.findAllSummaries(order);
+            roles = userRepository.findAllRoles();
+        } else {
+            int pageSize = Paging.size(size, maxPageSize, maxPageSize);
+            Page<UserRepository.UserSummary> result = userRepository.findSummaries(PageRequest.of(page == null ? 0 : Math.max(0, page), pageSize, order));
+            users = result.getContent();
+            roles = users.isEmpty() ? List.of() : userRepository.findRolesByIdIn(users.stream().map(UserRepository.UserSummary::getId).toList());
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(result.getTotalElements()));
+        }
+        Map<Long, List<String>> authorities = new HashMap<>();
+        for (UserRepository.UserIdAndRole role : roles) {
+            authorities.computeIfAbsent(role.getId(), id -> new ArrayList<>()).add("ROLE_" + role.getRole().name());
+        }
+        authorities.values().forEach(a -> a.sort(Comparator.naturalOrder()));
+        return response.body(users.stream().map(u -> new UserResponse(u.getId(), u.getName(), u.getLastname(), u.getEmail(),
+                authorities.getOrDefault(u.getId(), List.of()))).toList());
+    }
+
+    private static Sort sort(String sort) {
+        String[] parts = sort.split(",");
+        if (!SORTABLE.contains(parts[0]) || parts.length > 2) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Can't sort users by " + sort);
+        }
+        Sort.Direction direction;
+        try {
+            direction = parts.length == 2 ? Sort.Direction.fromString(parts[1]) : Sort.Direction.ASC;
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Can't sort users by " + sort);
+        }
+        Sort order = Sort.by(direction, parts[0]);
+        return parts[0].equals("id") ? order : order.and(Sort.by("id"));
     }
 
     @PutMapping("user/access")
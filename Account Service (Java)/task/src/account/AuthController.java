@@ -16,9 +16,11 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("api/auth")
 public class AuthController {
     private final UserDetailsService userDetailsService;
+    private final TokenService tokenService;
 
-    AuthController(UserDetailsService userDetailsService) {
+    AuthController(UserDetailsService userDetailsService, TokenService tokenService) {
         this.userDetailsService = userDetailsService;
+        this.tokenService = tokenService;
     }
 
     @PostMapping("signup")
@@ -35,6 +37,14 @@ public class AuthController {
         return new ChangePasswordResponse(user.email);
     }
 
+    @PostMapping("token")
+    @PreAuthorize("isAuthenticated()")
+    public TokenResponse token(@AuthenticationPrincipal User user) {
+        // reload, so a token can't be used to mint a new one with stale roles
+        TokenService.Token token = tokenService.issue(userDetailsService.loadUserByUsername(user.email));
+        return new TokenResponse(token.token(), token.expiresIn());
+    }
+
     record SignupRequest(@NotBlank String name, @NotBlank String lastname,
                          @Email(regexp = ".+@acme.com") @NotNull String email, @NotNull String password) {
     }
@@ -42,6 +52,12 @@ public class AuthController {
     record ChangePasswordRequest(@NotNull String new_password) {
     }
 
+    record TokenResponse(String token, String token_type, long expires_in) {
+        TokenResponse(String token, long expiresIn) {
+            this(token, "Bearer", expiresIn);
+        }
+    }
+
     record ChangePasswordResponse(String email, String status) {
         ChangePasswordResponse(String email) {
             this(email, "The password has been updated successfully");
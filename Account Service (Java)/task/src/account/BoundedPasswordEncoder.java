@@ -0,0 +1,93 @@
+package account;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Runs hashing on a fixed pool of worker threads with a bounded queue, so a burst of logins or signups waits for CPU
+there instead of occupying every request thread. When the queue is full the caller fails at once with
+PasswordHashingBusyException (503) rather than joining the pile-up.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer wait;
+    private final Counter rejected;
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), task -> {
+            Thread thread = new Thread(task, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("account.password.hashing.queue", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("account.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount);
+        this.wait = meterRegistry.timer("account.password.hashing.wait");
+        this.rejected = meterRegistry.counter("account.password.hashing.rejected");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T call(Callable<T> hashing) {
+        long submitted = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                wait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return hashing.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Interrupted while hashing a password", e);
+        }
+    }
+
+    /*
+    An AuthenticationException so a failed login check reaches RestAuthenticationEntryPoint, which answers 503 for it;
+    thrown from a controller the @ResponseStatus applies.
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    static class PasswordHashingBusyException extends AuthenticationServiceException {
+        PasswordHashingBusyException() {
+            super("Too many password checks in progress, try again later!");
+        }
+    }
+}
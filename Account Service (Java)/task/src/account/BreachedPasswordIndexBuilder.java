@@ -0,0 +1,96 @@
+package account;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+/*
+Builds the files BreachedPasswords maps, offline:
+
+    java -cp <classpath> account.BreachedPasswordIndexBuilder <sha1 list> <filter> <hashes> [bits per password]
+
+The list has one upper- or lower-case hex SHA-1 per line, optionally followed by ":count", sorted by hash, as in the
+"ordered by hash" breach downloads (otherwise sort it first). Duplicates are dropped. The default of 10 bits per
+password gives about 1% false positives from the filter alone, i.e. roughly 1.2 GB of filter per billion passwords.
+ */
+public class BreachedPasswordIndexBuilder {
+    private static final int DEFAULT_BITS_PER_PASSWORD = 10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3 || args.length > 4) {
+            System.err.println("Usage: BreachedPasswordIndexBuilder <sha1 list> <filter> <hashes> [bits per password]");
+            System.exit(2);
+        }
+        int bitsPerPassword = args.length == 4 ? Integer.parseInt(args[3]) : DEFAULT_BITS_PER_PASSWORD;
+        long count = build(Path.of(args[0]), Path.of(args[1]), Path.of(args[2]), bitsPerPassword);
+        System.out.printf("%d passwords, filter %d MiB%n", count, Files.size(Path.of(args[1])) >> 20);
+    }
+
+    /*
+    Writes both files and returns the number of distinct hashes in them.
+     */
+    static long build(Path list, Path filter, Path hashes, int bitsPerPassword) throws IOException {
+        return build(list, filter, hashes, bitsPerPassword, MappedFile.SLICE_BITS);
+    }
+
+    static long build(Path list, Path filter, Path hashes, int bitsPerPassword, int sliceBits) throws IOException {
+        long count = writeHashes(list, hashes);
+        writeFilter(hashes, filter, count, bitsPerPassword, sliceBits);
+        return count;
+    }
+
+    private static long writeHashes(Path list, Path hashes) throws IOException {
+        HexFormat hex = HexFormat.of();
+        byte[] previous = null;
+        long count = 0;
+        long line = 0;
+        try (BufferedReader in = Files.newBufferedReader(list, StandardCharsets.US_ASCII);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(hashes), 1 << 20)) {
+            for (String s; (s = in.readLine()) != null; ) {
+                line++;
+                int end = s.indexOf(':');
+                String hash = (end < 0 ? s : s.substring(0, end)).trim();
+                if (hash.isEmpty()) continue;
+                if (hash.length() != 2 * BreachedPasswords.HASH_LENGTH) {
+                    throw new IllegalArgumentException("Line %d is not a SHA-1: %s".formatted(line, s));
+                }
+                byte[] digest = hex.parseHex(hash);
+                if (previous != null) {
+                    int cmp = Arrays.compareUnsigned(previous, digest);
+                    if (cmp == 0) continue;
+                    if (cmp > 0) throw new IllegalArgumentException("Line %d is out of order; sort the list by hash first".formatted(line));
+                }
+                out.write(digest);
+                previous = digest;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void writeFilter(Path hashes, Path filter, long count, int bitsPerPassword, int sliceBits) throws IOException {
+        long bits = Math.max(64, count * bitsPerPassword);
+        // the number of probes that minimises false positives for this many bits per password
+        int probes = Math.max(1, (int) Math.round(bitsPerPassword * Math.log(2)));
+        MappedFile file = MappedFile.create(filter, BreachedPasswords.FILTER_HEADER + (bits + 7) / 8, sliceBits);
+        file.putInt(0, BreachedPasswords.FILTER_MAGIC);
+        file.putInt(4, probes);
+        file.putLong(8, bits);
+        byte[] digest = new byte[BreachedPasswords.HASH_LENGTH];
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(hashes), 1 << 20)) {
+            while (in.readNBytes(digest, 0, digest.length) == digest.length) {
+                long h1 = BreachedPasswords.hash1(digest);
+                long h2 = BreachedPasswords.hash2(digest);
+                for (int i = 0; i < probes; i++) {
+                    long bit = BreachedPasswords.bit(h1, h2, i, bits);
+                    long offset = BreachedPasswords.FILTER_HEADER + (bit >>> 3);
+                    file.put(offset, (byte) (file.get(offset) | 1 << (bit & 7)));
+                }
+            }
+        }
+        file.force();
+    }
+}
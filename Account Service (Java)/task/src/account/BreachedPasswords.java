@@ -0,0 +1,136 @@
+package account;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Set;
+
+/*
+Passwords known from breaches. The built-in list is always checked; a large corpus can be added as files built offline
+by BreachedPasswordIndexBuilder from a list of SHA-1 hashes:
+- the filter, a Bloom filter answering "definitely not breached" or "maybe" in a fixed number of probes, at about
+  10 bits per breached password;
+- the hashes, every SHA-1 in order, binary searched to confirm a "maybe" so its false positives never reject a password.
+Either can be used alone: without the hashes a filter hit counts as breached, without the filter every check searches.
+Both are memory-mapped, so they take no heap and the OS only pages in what lookups touch.
+The filter is a Bloom filter rather than a smaller static one such as a xor filter (about 9.8 bits per password at
+0.4%): it is built in one streaming pass over the sorted hashes, where a xor filter needs every key in memory at
+once, which for hundreds of millions of passwords is far more than the builder should take.
+ */
+@Component
+public class BreachedPasswords {
+    static final int FILTER_MAGIC = 0x42505746; // "BPWF"
+    static final int FILTER_HEADER = 16;
+    static final int HASH_LENGTH = 20;
+
+    private static final Logger log = LoggerFactory.getLogger(BreachedPasswords.class);
+    private static final Set<String> BUILT_IN = Set.of("PasswordForJanuary", "PasswordForFebruary", "PasswordForMarch",
+            "PasswordForApril", "PasswordForMay", "PasswordForJune", "PasswordForJuly", "PasswordForAugust",
+            "PasswordForSeptember", "PasswordForOctober", "PasswordForNovember", "PasswordForDecember");
+
+    private final MappedFile filter;
+    private final MappedFile hashes;
+    private final int probes;
+    private final long bits;
+
+    BreachedPasswords(@Value("${account.breached-passwords.filter:}") String filter,
+                      @Value("${account.breached-passwords.hashes:}") String hashes) {
+        try {
+            this.filter = filter.isEmpty() ? null : MappedFile.read(Path.of(filter));
+            this.hashes = hashes.isEmpty() ? null : MappedFile.read(Path.of(hashes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't map the breached password index", e);
+        }
+        if (this.filter != null) {
+            if (this.filter.size() < FILTER_HEADER || this.filter.getInt(0) != FILTER_MAGIC) {
+                throw new IllegalStateException(filter + " is not a breached password filter");
+            }
+            this.probes = this.filter.getInt(4);
+            this.bits = this.filter.getLong(8);
+            if (probes < 1 || bits < 1 || this.filter.size() != FILTER_HEADER + (bits + 7) / 8) {
+                throw new IllegalStateException("%s is damaged: %d probes into %d bits in %d bytes"
+                        .formatted(filter, probes, bits, this.filter.size()));
+            }
+            log.info("Breached password filter: {} MiB, {} probes", this.filter.size() >> 20, probes);
+        } else {
+            this.probes = 0;
+            this.bits = 0;
+        }
+        if (this.hashes != null) {
+            if (this.hashes.size() % HASH_LENGTH != 0) {
+                throw new IllegalStateException(hashes + " is not a list of SHA-1 hashes: " + this.hashes.size() + " bytes");
+            }
+            log.info("Breached password hashes: {}", this.hashes.size() / HASH_LENGTH);
+        }
+    }
+
+    public boolean contains(String password) {
+        if (BUILT_IN.contains(password)) return true;
+        if (filter == null && hashes == null) return false;
+        byte[] digest = sha1(password);
+        if (filter != null && !mightContain(digest)) return false;
+        return hashes == null || search(digest);
+    }
+
+    private boolean mightContain(byte[] digest) {
+        long h1 = hash1(digest);
+        long h2 = hash2(digest);
+        for (int i = 0; i < probes; i++) {
+            long bit = bit(h1, h2, i, bits);
+            if ((filter.get(FILTER_HEADER + (bit >>> 3)) & (1 << (bit & 7))) == 0) return false;
+        }
+        return true;
+    }
+
+    private boolean search(byte[] digest) {
+        byte[] candidate = new byte[HASH_LENGTH];
+        long low = 0;
+        long high = hashes.size() / HASH_LENGTH - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            hashes.get(mid * HASH_LENGTH, candidate);
+            int cmp = Arrays.compareUnsigned(candidate, digest);
+            if (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    /*
+    The digest is already uniformly distributed, so its first two longs serve as the two hashes of double hashing;
+    the builder works from the same digests and has no password to hash.
+     */
+    static long hash1(byte[] digest) {
+        long h = 0;
+        for (int i = 0; i < 8; i++) h = h << 8 | digest[i] & 0xFF;
+        return h;
+    }
+
+    static long hash2(byte[] digest) {
+        long h = 0;
+        for (int i = 8; i < 16; i++) h = h << 8 | digest[i] & 0xFF;
+        return h | 1;
+    }
+
+    static long bit(long h1, long h2, int probe, long bits) {
+        return Long.remainderUnsigned(h1 + probe * h2, bits);
+    }
+
+    private static byte[] sha1(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
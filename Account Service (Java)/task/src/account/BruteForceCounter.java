@@ -1,23 +1,112 @@
 package account;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
 
+/*
+Counts failed logins per email within a sliding window. Safe for concurrent request threads.
+Only emails with an account are counted, since only those can be locked; a spray of made-up emails is dropped
+(account.brute.force.unknown) instead of growing the map or crowding out the counter of a real account. Counters
+with no failure left in the window are swept now and then, so the map stays within the accounts under attack.
+ */
 @Component
 public class BruteForceCounter {
-    private final Map<String, Integer> map = new HashMap<>();
+    private static final Duration SWEEP_INTERVAL = Duration.ofMinutes(1);
+
+    private final Map<String, Attempts> attempts = new ConcurrentHashMap<>();
+    private final Predicate<String> hasAccount;
+    private final int threshold;
+    private final long windowNanos;
+    private final LongSupplier nanoTime;
+    private final PeriodicSweep sweep;
+    private final Counter evictions;
+    private final Counter unknown;
+
+    @Autowired
+    BruteForceCounter(MeterRegistry meterRegistry, UserCache userCache,
+                      @Value("${account.brute-force.threshold:5}") int threshold,
+                      @Value("${account.brute-force.window:PT1H}") Duration window) {
+        this(meterRegistry, email -> userCache.findByEmail(email) != null, threshold, window, System::nanoTime);
+    }
+
+    BruteForceCounter(MeterRegistry meterRegistry, Predicate<String> hasAccount, int threshold, Duration window, LongSupplier nanoTime) {
+        this.hasAccount = hasAccount;
+        this.threshold = threshold;
+        this.windowNanos = window.toNanos();
+        this.nanoTime = nanoTime;
+        this.sweep = new PeriodicSweep(SWEEP_INTERVAL, nanoTime.getAsLong());
+        meterRegistry.gaugeMapSize("account.brute.force.tracked", Tags.empty(), attempts);
+        this.evictions = meterRegistry.counter("account.brute.force.evictions");
+        this.unknown = meterRegistry.counter("account.brute.force.unknown");
+    }
 
     public boolean isBlocked(String email) {
-        return map.getOrDefault(email, 0) >= 5;
+        Attempts a = attempts.get(key(email));
+        return a != null && a.count(nanoTime.getAsLong(), windowNanos) >= threshold;
     }
 
     public void increment(String email) {
-        map.put(email, map.getOrDefault(email, 0) + 1);
+        String key = key(email);
+        if (!attempts.containsKey(key) && !hasAccount.test(key)) {
+            unknown.increment();
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        if (sweep.claim(now)) {
+            int before = attempts.size();
+            attempts.values().removeIf(a -> a.count(now, windowNanos) == 0);
+            evictions.increment(Math.max(0, before - attempts.size()));
+        }
+        attempts.compute(key, (k, a) -> {
+            if (a == null) a = new Attempts(threshold);
+            a.record(now);
+            return a;
+        });
     }
 
     public void reset(String email) {
-        map.remove(email);
+        attempts.remove(key(email));
+    }
+
+    private static String key(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /*
+    Ring of the most recent failure times; only the last `threshold` matter for the decision.
+     */
+    private static final class Attempts {
+        private final long[] times;
+        private int next;
+        private int size;
+
+        Attempts(int capacity) {
+            this.times = new long[capacity];
+        }
+
+        synchronized void record(long now) {
+            times[next] = now;
+            next = (next + 1) % times.length;
+            size = Math.min(size + 1, times.length);
+        }
+
+        synchronized int count(long now, long windowNanos) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (now - times[i] < windowNanos) count++;
+            }
+            return count;
+        }
     }
 }
@@ -0,0 +1,46 @@
+package account;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CachingAuthenticationProvider extends DaoAuthenticationProvider {
+    private final CredentialCache credentialCache;
+
+    CachingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder, CredentialCache credentialCache) {
+        this.credentialCache = credentialCache;
+        setUserDetailsService(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+        setUserDetailsPasswordService(userDetailsService);
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        Object credentials = authentication.getCredentials();
+        if (credentials != null && credentialCache.isVerified(userDetails.getUsername(), credentials.toString(), userDetails.getPassword())) {
+            return;
+        }
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        credentialCache.verified(userDetails.getUsername(), credentials.toString(), userDetails.getPassword());
+    }
+
+    /*
+    A stored hash at another cost is rehashed here; that is only housekeeping, so a full hashing pool must not fail
+    an otherwise good login. The rehash is left for a later one.
+     */
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        try {
+            return super.createSuccessAuthentication(principal, authentication, user);
+        } catch (BoundedPasswordEncoder.PasswordHashingBusyException e) {
+            var result = UsernamePasswordAuthenticationToken.authenticated(principal, authentication.getCredentials(), user.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+    }
+}
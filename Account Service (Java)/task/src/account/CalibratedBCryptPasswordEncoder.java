@@ -0,0 +1,59 @@
+package account;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+BCrypt at a cost picked for this machine: calibrate() times a cheap hash and doubles it (one round per step) up to the
+configured target time. Hashes stored at any other cost still verify. upgradeEncoding() reports those below the
+current cost so DaoAuthenticationProvider rehashes them on the next successful login; higher ones are kept, since
+the calibrated cost varies between hosts and restarts and hashes would otherwise flip back and forth.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+    private static final Logger log = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+    private static final Pattern COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final int PROBE_STRENGTH = 8;
+    private static final int PROBE_RUNS = 5;
+    private static final int MAX_STRENGTH = 31;
+
+    private final int strength;
+
+    CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /*
+    The highest cost whose hash still fits in the target time, but never below minStrength.
+    The fastest of a few probe runs is used, so the first, unoptimised ones don't skew it.
+     */
+    static int calibrate(Duration target, int minStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(PROBE_STRENGTH);
+        long nanos = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_RUNS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            nanos = Math.min(nanos, System.nanoTime() - start);
+        }
+        int strength = PROBE_STRENGTH;
+        while (strength < MAX_STRENGTH && nanos * 2 <= target.toNanos()) {
+            strength++;
+            nanos *= 2;
+        }
+        strength = Math.max(strength, minStrength);
+        log.info("BCrypt cost {} for a target hash time of {} ms", strength, target.toMillis());
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) return false;
+        Matcher matcher = COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+}
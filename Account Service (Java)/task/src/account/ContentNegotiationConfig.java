@@ -0,0 +1,63 @@
+package account;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/*
+Formats offered besides the indented JSON that browsers and the tests get by default, chosen with Accept for
+responses and Content-Type for request bodies:
+- application/vnd.account.compact+json, the same JSON without indentation;
+- application/cbor and application/x-jackson-smile, binary and quicker to parse.
+All of them use the application's Jackson settings. Gzip is separate: server.compression for responses,
+GzipRequestFilter for request bodies.
+ */
+@Configuration
+public class ContentNegotiationConfig implements WebMvcConfigurer {
+    static final MediaType COMPACT_JSON = MediaType.parseMediaType("application/vnd.account.compact+json");
+    static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    // picked up by Boot's HttpMessageConverters in place of the defaults, which would ignore spring.jackson.*
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /*
+    The JSON converter already accepts application/*+json, so the compact type only needs its own, unindented mapper.
+    Once a type has mappers registered they are all it offers, so the usual media types are registered again, with
+    application/json first: that is what a client accepting any type keeps getting.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof MappingJackson2HttpMessageConverter json) {
+                ObjectMapper indented = json.getObjectMapper();
+                ObjectMapper compact = indented.copy().disable(SerializationFeature.INDENT_OUTPUT);
+                json.registerObjectMappersForType(Object.class, mappers -> {
+                    mappers.put(MediaType.APPLICATION_JSON, indented);
+                    mappers.put(COMPACT_JSON, compact);
+                    json.getSupportedMediaTypes().forEach(mediaType -> mappers.putIfAbsent(mediaType, indented));
+                });
+                return;
+            }
+        }
+    }
+}
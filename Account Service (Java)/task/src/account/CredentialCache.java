@@ -0,0 +1,90 @@
+package account;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/*
+Remembers recently verified credentials so that only the first request in a TTL window pays for BCrypt.
+Entries hold an HMAC of email, password and stored hash under a per-process key, never the password itself.
+While the cache is full of live entries, newly verified credentials just aren't cached.
+ */
+@Component
+public class CredentialCache {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final SecretKey key;
+    private final long ttlNanos;
+    private final int maxSize;
+    private final LongSupplier nanoTime;
+    private final PeriodicSweep sweep;
+
+    @Autowired
+    CredentialCache(@Value("${account.credential-cache.ttl:PT5M}") Duration ttl,
+                    @Value("${account.credential-cache.max-size:10000}") int maxSize) throws GeneralSecurityException {
+        this(ttl, maxSize, System::nanoTime);
+    }
+
+    CredentialCache(Duration ttl, int maxSize, LongSupplier nanoTime) throws GeneralSecurityException {
+        this.key = KeyGenerator.getInstance("HmacSHA256").generateKey();
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.nanoTime = nanoTime;
+        this.sweep = new PeriodicSweep(PeriodicSweep.DEFAULT_INTERVAL, nanoTime.getAsLong());
+    }
+
+    public boolean isVerified(String email, String password, String encodedPassword) {
+        Entry entry = entries.get(email);
+        if (entry == null) return false;
+        if (entry.expiresAt - nanoTime.getAsLong() < 0) {
+            entries.remove(email, entry);
+            return false;
+        }
+        return MessageDigest.isEqual(entry.digest, digest(email, password, encodedPassword));
+    }
+
+    public void verified(String email, String password, String encodedPassword) {
+        long now = nanoTime.getAsLong();
+        if (!entries.containsKey(email) && !sweep.hasRoom(entries, maxSize, now, e -> e.expiresAt - now < 0)) {
+            return;
+        }
+        entries.put(email, new Entry(digest(email, password, encodedPassword), now + ttlNanos));
+    }
+
+    public void invalidate(String email) {
+        entries.remove(email);
+    }
+
+    @EventListener
+    void onUserChanged(UserChangedEvent event) {
+        invalidate(event.email());
+    }
+
+    private byte[] digest(String email, String password, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            mac.update(email.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(encodedPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Entry(byte[] digest, long expiresAt) {
+    }
+}
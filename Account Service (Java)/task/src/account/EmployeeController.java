@@ -1,9 +1,11 @@
 package account;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
-import jakarta.transaction.Transactional;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -11,33 +13,67 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.YearMonth;
-import java.util.stream.Stream;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 
+/*
+Responses carry an ETag, so a client sending If-None-Match gets 304 Not Modified while its payslips are unchanged.
+The ETag is the same in every format, so responses also say they vary by Accept for caches in between.
+ */
 @RestController
 @RequestMapping("api/empl")
 public class EmployeeController {
+    private static final DateTimeFormatter PERIOD_FORMAT = DateTimeFormatter.ofPattern("MM-yyyy");
+
     private final PayrollRepository payrollRepository;
+    private final PayslipCache payslipCache;
+    private final int maxPageSize;
 
-    EmployeeController(PayrollRepository payrollRepository) {
+    EmployeeController(PayrollRepository payrollRepository, PayslipCache payslipCache,
+                       @Value("${account.payslips.max-page-size:120}") int maxPageSize) {
         this.payrollRepository = payrollRepository;
+        this.payslipCache = payslipCache;
+        this.maxPageSize = maxPageSize;
     }
 
     @GetMapping(value = "payment", params = "period")
-    public PaymentResponse getPayroll(@RequestParam @DateTimeFormat(pattern = "MM-yyyy") @NotNull YearMonth period, @AuthenticationPrincipal User user) {
-        Payroll p = payrollRepository.findByUserAndPeriod(user, period);
-        return new PaymentResponse(user, p);
+    public ResponseEntity<PaymentResponse> getPayroll(@RequestParam @DateTimeFormat(pattern = "MM-yyyy") @NotNull YearMonth period, @AuthenticationPrincipal User user) {
+        var payslip = payslipCache.get(user.id, period, () -> new PaymentResponse(user, payrollRepository.findByUserAndPeriod(user, period)));
+        return ResponseEntity.ok().eTag(payslip.etag()).varyBy(HttpHeaders.ACCEPT).body(payslip.value());
     }
 
+    /*
+    Without parameters this is the whole cached history. With from/to (inclusive, MM-yyyy) and/or limit it reads one
+    page, newest first; when the page is full X-Next-Cursor holds the value to pass as `before` for the next one.
+     */
     @GetMapping(value = "payment", params = "!period")
-    @Transactional
-    public Stream<PaymentResponse> getPayrolls(@AuthenticationPrincipal User user) {
-        return payrollRepository.findByUserOrderByPeriodDesc(user).map(p -> new PaymentResponse(user, p));
+    public ResponseEntity<List<PaymentResponse>> getPayrolls(@RequestParam(required = false) @DateTimeFormat(pattern = "MM-yyyy") YearMonth from,
+                                                             @RequestParam(required = false) @DateTimeFormat(pattern = "MM-yyyy") YearMonth to,
+                                                             @RequestParam(required = false) @DateTimeFormat(pattern = "MM-yyyy") YearMonth before,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             @AuthenticationPrincipal User user) {
+        if (from != null || to != null || before != null || limit != null) {
+            return getPayrollPage(user, from, to, before, limit);
+        }
+        var payslips = payslipCache.getAll(user.id, () -> payrollRepository.findByUserOrderByPeriodDesc(user).stream().map(p -> new PaymentResponse(user, p)).toList());
+        return ResponseEntity.ok().eTag(payslips.etag()).varyBy(HttpHeaders.ACCEPT).body(payslips.value());
+    }
+
+    private ResponseEntity<List<PaymentResponse>> getPayrollPage(User user, YearMonth from, YearMonth to, YearMonth before, Integer limit) {
+        int size = Paging.size(limit, maxPageSize, maxPageSize);
+        YearMonth upper = to;
+        if (before != null && (upper == null || before.minusMonths(1).isBefore(upper))) upper = before.minusMonths(1);
+        List<PaymentResponse> page = payrollRepository.findPage(user, from, upper, size).stream().map(p -> new PaymentResponse(user, p)).toList();
+        return Paging.keysetPage(page, size, p -> p.period().format(PERIOD_FORMAT));
     }
 
-    record PaymentResponse(String name, String lastname, @JsonFormat(pattern = "MMMM-yyyy") YearMonth period,
-                           String salary) {
+    /*
+    Serialised by PaymentResponseSerializer as "period": "January-2021", "salary": "1234 dollar(s) 56 cent(s)".
+     */
+    @JsonSerialize(using = PaymentResponseSerializer.class)
+    record PaymentResponse(String name, String lastname, YearMonth period, long salary) {
         PaymentResponse(User user, Payroll payroll) {
-            this(user.name, user.lastname, payroll.period, "%d dollar(s) %d cent(s)".formatted(payroll.salary / 100, payroll.salary % 100));
+            this(user.name, user.lastname, payroll.period, payroll.salary);
         }
     }
 }
@@ -1,14 +1,34 @@
 package account;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 public class EncryptionConfig {
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(13);
+    // close stops the hashing workers; named because the declared type doesn't show that there is one
+    @Bean(destroyMethod = "close")
+    @Lazy(false) // calibrate while starting up, not during the first login
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${account.password-hashing.threads:0}") int threads,
+                                           @Value("${account.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${account.password-hashing.strength:0}") int strength,
+                                           @Value("${account.password-hashing.target-time:PT0.25S}") Duration targetTime,
+                                           @Value("${account.password-hashing.min-strength:13}") int minStrength) {
+        strength = strength > 0 ? Math.max(strength, minStrength) : CalibratedBCryptPasswordEncoder.calibrate(targetTime, minStrength);
+        var bcrypt = new CalibratedBCryptPasswordEncoder(strength);
+        var delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        // hashes stored before the {bcrypt} prefix have no id; they are BCrypt too, and get the prefix when rehashed
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        PasswordEncoder timed = new TimedPasswordEncoder(delegating, meterRegistry);
+        // 0 threads means one per core: hashing is CPU-bound, more threads would only slice the same cores thinner
+        return new BoundedPasswordEncoder(timed, meterRegistry, threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), queueCapacity);
     }
 }
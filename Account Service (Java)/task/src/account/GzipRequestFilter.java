@@ -0,0 +1,222 @@
+package account;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/*
+Inflates request bodies sent with Content-Encoding: gzip, so large payroll uploads can travel compressed.
+Further down the request looks like it was sent uncompressed: no Content-Encoding, and no Content-Length since
+only the compressed length is known. A body inflating past max-inflated-size fails with 413, so a small zip bomb
+can't fill the heap of a handler that binds the whole upload.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class GzipRequestFilter extends OncePerRequestFilter {
+    private final long maxInflatedBytes;
+
+    GzipRequestFilter(@Value("${account.gzip-requests.max-inflated-size:64MB}") DataSize maxInflatedSize) {
+        this.maxInflatedBytes = maxInflatedSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        return !"gzip".equalsIgnoreCase(encoding) && !"x-gzip".equalsIgnoreCase(encoding);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        chain.doFilter(new InflatingRequest(request, maxInflatedBytes), response);
+    }
+
+    /*
+    An IOException so Jackson passes it through unwrapped; Spring MVC finds the status on it as the cause of the
+    HttpMessageNotReadableException a bound @RequestBody fails with.
+     */
+    @ResponseStatus(code = HttpStatus.PAYLOAD_TOO_LARGE, reason = "Request body too large!")
+    static class InflatedBodyTooLargeException extends IOException {
+        InflatedBodyTooLargeException(long maxBytes) {
+            super("Request body inflates to more than %d bytes".formatted(maxBytes));
+        }
+    }
+
+    private static final class InflatingRequest extends HttpServletRequestWrapper {
+        private final long maxInflatedBytes;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        InflatingRequest(HttpServletRequest request, long maxInflatedBytes) {
+            super(request);
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) inputStream = new InflatingInputStream(super.getInputStream(), maxInflatedBytes);
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+            return reader;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return hidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return hidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream().filter(name -> !hidden(name)).toList());
+        }
+
+        @Override
+        public int getIntHeader(String name) {
+            return hidden(name) ? -1 : super.getIntHeader(name);
+        }
+
+        private static boolean hidden(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    /*
+    Inflates on first read, so nothing blocks on the gzip header before the servlet reads. With a ReadListener
+    (non-blocking reads in async mode) the compressed body is collected as it arrives and inflated from memory once
+    complete; reads then never block.
+     */
+    private static final class InflatingInputStream extends ServletInputStream {
+        private final ServletInputStream compressed;
+        private final long maxInflatedBytes;
+        private InputStream inflating;
+        private long inflatedBytes;
+        private boolean finished;
+        private boolean nonBlocking;
+
+        InflatingInputStream(ServletInputStream compressed, long maxInflatedBytes) {
+            this.compressed = compressed;
+            this.maxInflatedBytes = maxInflatedBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = inflating().read();
+            counted(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = inflating().read(b, off, len);
+            counted(n);
+            return n;
+        }
+
+        private InputStream inflating() throws IOException {
+            if (inflating == null) inflating = new GZIPInputStream(compressed, 8192);
+            return inflating;
+        }
+
+        private void counted(int n) throws InflatedBodyTooLargeException {
+            if (n < 0) {
+                finished = true;
+            } else if ((inflatedBytes += n) > maxInflatedBytes) {
+                throw new InflatedBodyTooLargeException(maxInflatedBytes);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (inflating != null) inflating.close();
+            else compressed.close();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return !nonBlocking || inflating != null;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            nonBlocking = true;
+            var collected = new ByteArrayOutputStream();
+            compressed.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[8192];
+                    while (compressed.isReady()) {
+                        int n = compressed.read(buffer);
+                        if (n < 0) return;
+                        // a compressed body never gets bigger than the inflated one may be
+                        if (collected.size() + n > maxInflatedBytes) throw new InflatedBodyTooLargeException(maxInflatedBytes);
+                        collected.write(buffer, 0, n);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    inflating = new GZIPInputStream(new ByteArrayInputStream(collected.toByteArray()), 8192);
+                    readListener.onDataAvailable();
+                    if (finished) readListener.onAllDataRead();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    readListener.onError(t);
+                }
+            });
+        }
+    }
+}
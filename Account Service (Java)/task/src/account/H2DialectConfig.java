@@ -0,0 +1,24 @@
+package account;
+
+import org.h2.Driver;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/*
+Hibernate boots without reading JDBC metadata (hibernate.temp.use_jdbc_metadata_defaults=false), so it is told the
+database version instead. H2 runs embedded from the driver on the classpath, so the driver's version is the
+database's, and upgrading H2 can't leave Hibernate on the old dialect version. A server-mode URL would break that.
+ */
+@Configuration
+public class H2DialectConfig {
+    @Bean
+    public HibernatePropertiesCustomizer h2DatabaseVersion() {
+        Driver driver = new Driver();
+        // as strings, which is what the schema tools cast them to
+        return properties -> {
+            properties.put("jakarta.persistence.database-major-version", String.valueOf(driver.getMajorVersion()));
+            properties.put("jakarta.persistence.database-minor-version", String.valueOf(driver.getMinorVersion()));
+        };
+    }
+}
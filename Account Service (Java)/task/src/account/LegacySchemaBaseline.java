@@ -0,0 +1,66 @@
+package account;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/*
+Databases created while Hibernate generated the schema (spring.jpa.generate-ddl) already hold V1, so they are
+baselined at V1 before migrating. spring.flyway.baseline-on-migrate is not enough: it is skipped once a schema history
+table exists, and a Flyway run that found no migrations leaves one behind with nothing but its creation marker, after
+which V1 fails on the existing tables. Flyway won't baseline into that table either, so it is dropped first.
+Dropping it is a one-off operation: it only runs when started with account.flyway.baseline-legacy-schema=true, and
+without the flag such a database stops startup. Once baselined the history has an entry and the flag does nothing.
+ */
+@Component
+public class LegacySchemaBaseline implements FlywayMigrationStrategy {
+    private static final Logger log = LoggerFactory.getLogger(LegacySchemaBaseline.class);
+
+    private final boolean baselineLegacySchema;
+
+    LegacySchemaBaseline(@Value("${account.flyway.baseline-legacy-schema:false}") boolean baselineLegacySchema) {
+        this.baselineLegacySchema = baselineLegacySchema;
+    }
+
+    @Override
+    public void migrate(Flyway flyway) {
+        if (flyway.info().applied().length == 0 && isLegacySchema(flyway.getConfiguration())) {
+            if (!baselineLegacySchema) {
+                throw new FlywayException("The database has tables but no applied migrations. If it was created before "
+                        + "migrations existed, start once with account.flyway.baseline-legacy-schema=true to baseline it at V1");
+            }
+            log.warn("Baselining a schema created before migrations at V1; account.flyway.baseline-legacy-schema can be removed");
+            dropHistory(flyway.getConfiguration());
+            flyway.baseline();
+        }
+        flyway.migrate();
+    }
+
+    private static boolean isLegacySchema(Configuration configuration) {
+        try (Connection connection = configuration.getDataSource().getConnection();
+             ResultSet tables = connection.getMetaData().getTables(null, connection.getSchema(), "user", null)) {
+            return tables.next();
+        } catch (SQLException e) {
+            throw new FlywayException("Can't inspect the schema before migrating", e);
+        }
+    }
+
+    private static void dropHistory(Configuration configuration) {
+        try (Connection connection = configuration.getDataSource().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists \"%s\"".formatted(configuration.getTable()));
+        } catch (SQLException e) {
+            throw new FlywayException("Can't prepare a schema created before migrations for its baseline", e);
+        }
+    }
+}
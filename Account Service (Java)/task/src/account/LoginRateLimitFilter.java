@@ -0,0 +1,65 @@
+package account;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+Runs ahead of BasicAuthenticationFilter, so once an IP or username has used up its failed attempts, requests with
+Basic credentials get a 429 without a BCrypt check. Credentials the CredentialCache has already verified still go
+through, so an attacker can't shut out a user who is logged in. SpringSecurityEventHandler charges the failures.
+The client IP is getRemoteAddr(); behind a proxy, set server.forward-headers-strategy (see application.properties).
+Not a @Component for the same reason as BearerTokenFilter.
+ */
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+    private static final String PREFIX = "Basic ";
+
+    private final LoginRateLimiter loginRateLimiter;
+    private final UserCache userCache;
+    private final CredentialCache credentialCache;
+
+    LoginRateLimitFilter(LoginRateLimiter loginRateLimiter, UserCache userCache, CredentialCache credentialCache) {
+        this.loginRateLimiter = loginRateLimiter;
+        this.userCache = userCache;
+        this.credentialCache = credentialCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        String[] credentials = basicCredentials(request.getHeader(HttpHeaders.AUTHORIZATION));
+        if (credentials != null && loginRateLimiter.isLimited(request.getRemoteAddr(), credentials[0])
+                && !isVerified(credentials[0], credentials[1])) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(loginRateLimiter.retryAfterSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Too many authentication attempts!");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private boolean isVerified(String username, String password) {
+        User user = userCache.findByEmail(username);
+        return user != null && credentialCache.isVerified(user.getUsername(), password, user.getPassword());
+    }
+
+    /*
+    Username and password, or null without Basic credentials.
+     */
+    private static String[] basicCredentials(String header) {
+        if (header == null || !header.regionMatches(true, 0, PREFIX, 0, PREFIX.length())) return null;
+        try {
+            String credentials = new String(Base64.getDecoder().decode(header.substring(PREFIX.length()).trim()), StandardCharsets.UTF_8);
+            int colon = credentials.indexOf(':');
+            return colon < 0 ? null : new String[]{credentials.substring(0, colon), credentials.substring(colon + 1)};
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package account;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/*
+Token buckets per client IP and per claimed username, charged for failed logins only and consulted before any
+password is hashed; successful logins cost nothing.
+Keys are not stored. Each one hashes to a bucket in each of two fixed rows of `width` buckets (a count-min sketch),
+so memory stays the same however many keys an attacker makes up, and every failure is charged. A key is limited
+once all its buckets are empty: sharing a bucket with other keys can limit it sooner, but never exempts it.
+ */
+@Component
+public class LoginRateLimiter {
+    private static final int ROWS = 2;
+
+    private final Sketch ipBuckets;
+    private final Sketch userBuckets;
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    LoginRateLimiter(MeterRegistry meterRegistry,
+                     @Value("${account.login-rate-limit.ip.capacity:100}") int ipCapacity,
+                     @Value("${account.login-rate-limit.ip.refill-per-second:20}") double ipRefillPerSecond,
+                     @Value("${account.login-rate-limit.user.capacity:20}") int userCapacity,
+                     @Value("${account.login-rate-limit.user.refill-per-second:5}") double userRefillPerSecond,
+                     @Value("${account.login-rate-limit.width:16384}") int width) {
+        this(meterRegistry, ipCapacity, ipRefillPerSecond, userCapacity, userRefillPerSecond, width, System::nanoTime);
+    }
+
+    LoginRateLimiter(MeterRegistry meterRegistry, int ipCapacity, double ipRefillPerSecond, int userCapacity, double userRefillPerSecond,
+                     int width, LongSupplier nanoTime) {
+        if (width < 1) throw new IllegalArgumentException("account.login-rate-limit.width must be at least 1");
+        this.nanoTime = nanoTime;
+        this.ipBuckets = new Sketch(width, ipCapacity, ipRefillPerSecond / 1e9, meterRegistry.counter("account.auth.rate.limited", "key", "ip"));
+        this.userBuckets = new Sketch(width, userCapacity, userRefillPerSecond / 1e9, meterRegistry.counter("account.auth.rate.limited", "key", "user"));
+    }
+
+    /*
+    Whether the IP or the username has used up its failed attempts for now.
+     */
+    public boolean isLimited(String ip, String username) {
+        long now = nanoTime.getAsLong();
+        return ipBuckets.isLimited(ip, now) || userBuckets.isLimited(key(username), now);
+    }
+
+    public void failed(String ip, String username) {
+        long now = nanoTime.getAsLong();
+        ipBuckets.charge(ip, now);
+        userBuckets.charge(key(username), now);
+    }
+
+    /*
+    Seconds until the slower of the two configured refills yields a token again; used for Retry-After.
+     */
+    public long retryAfterSeconds() {
+        return (long) Math.ceil(1 / (Math.min(ipBuckets.refillPerNano, userBuckets.refillPerNano) * 1e9));
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private final class Sketch {
+        private final Bucket[] buckets;
+        // random per process, so nobody can work out offline which keys share a victim's buckets
+        private final long[] seeds = new SecureRandom().longs(ROWS).toArray();
+        private final int width;
+        private final double capacity;
+        private final double refillPerNano;
+        private final Counter limited;
+
+        Sketch(int width, double capacity, double refillPerNano, Counter limited) {
+            this.width = width;
+            this.capacity = capacity;
+            this.refillPerNano = refillPerNano;
+            this.limited = limited;
+            this.buckets = new Bucket[ROWS * width];
+            long now = nanoTime.getAsLong();
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new Bucket(capacity, now);
+        }
+
+        boolean isLimited(String key, long now) {
+            for (int row = 0; row < ROWS; row++) {
+                if (bucket(key, row).hasToken(now, capacity, refillPerNano)) return false;
+            }
+            limited.increment();
+            return true;
+        }
+
+        void charge(String key, long now) {
+            for (int row = 0; row < ROWS; row++) bucket(key, row).take(now, capacity, refillPerNano);
+        }
+
+        private Bucket bucket(String key, int row) {
+            return buckets[row * width + (int) Long.remainderUnsigned(hash(key, seeds[row]), width)];
+        }
+    }
+
+    /*
+    FNV-1a from a seeded start, finished with the MurmurHash3 mixer.
+     */
+    private static long hash(String key, long seed) {
+        long h = seed;
+        for (int i = 0; i < key.length(); i++) h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        synchronized boolean hasToken(long now, double capacity, double refillPerNano) {
+            refill(now, capacity, refillPerNano);
+            return tokens >= 1;
+        }
+
+        synchronized void take(long now, double capacity, double refillPerNano) {
+            refill(now, capacity, refillPerNano);
+            tokens = Math.max(0, tokens - 1);
+        }
+
+        private void refill(long now, double capacity, double refillPerNano) {
+            // a bucket is shared between threads, which may have read the time in a different order than they got here
+            if (now - refilledAt <= 0) return;
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+        }
+    }
+}
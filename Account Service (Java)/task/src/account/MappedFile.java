@@ -0,0 +1,107 @@
+package account;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+A file of any size mapped into memory in 1 GiB slices, since one MappedByteBuffer stops at 2 GiB. Pages are loaded
+by the OS on first touch and can be dropped again under pressure, so mapping costs neither heap nor startup time.
+Absolute reads only, so one instance is safe to share between threads.
+ */
+final class MappedFile {
+    static final int SLICE_BITS = 30;
+
+    private final MappedByteBuffer[] slices;
+    private final long size;
+    private final int sliceBits;
+    private final long sliceMask;
+
+    private MappedFile(MappedByteBuffer[] slices, long size, int sliceBits) {
+        this.slices = slices;
+        this.size = size;
+        this.sliceBits = sliceBits;
+        this.sliceMask = (1L << sliceBits) - 1;
+    }
+
+    static MappedFile read(Path path) throws IOException {
+        return read(path, SLICE_BITS);
+    }
+
+    // smaller slices let tests cross slice boundaries without gigabyte files
+    static MappedFile read(Path path, int sliceBits) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return map(channel, FileChannel.MapMode.READ_ONLY, channel.size(), sliceBits);
+        }
+    }
+
+    /*
+    Creates or truncates the file to size bytes, all zero, for the index builder to fill in.
+     */
+    static MappedFile create(Path path, long size) throws IOException {
+        return create(path, size, SLICE_BITS);
+    }
+
+    static MappedFile create(Path path, long size, int sliceBits) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return map(channel, FileChannel.MapMode.READ_WRITE, size, sliceBits);
+        }
+    }
+
+    private static MappedFile map(FileChannel channel, FileChannel.MapMode mode, long size, int sliceBits) throws IOException {
+        if (sliceBits < 1 || sliceBits > SLICE_BITS) throw new IllegalArgumentException("Slices of 2^" + sliceBits + " bytes");
+        long sliceSize = 1L << sliceBits;
+        var slices = new MappedByteBuffer[(int) ((size + sliceSize - 1) >>> sliceBits)];
+        for (int i = 0; i < slices.length; i++) {
+            long offset = (long) i << sliceBits;
+            slices[i] = channel.map(mode, offset, Math.min(sliceSize, size - offset));
+        }
+        return new MappedFile(slices, size, sliceBits);
+    }
+
+    long size() {
+        return size;
+    }
+
+    byte get(long offset) {
+        return slices[(int) (offset >>> sliceBits)].get((int) (offset & sliceMask));
+    }
+
+    void get(long offset, byte[] dst) {
+        for (int i = 0; i < dst.length; i++) {
+            dst[i] = get(offset + i);
+        }
+    }
+
+    int getInt(long offset) {
+        return (get(offset) & 0xFF) << 24 | (get(offset + 1) & 0xFF) << 16 | (get(offset + 2) & 0xFF) << 8 | get(offset + 3) & 0xFF;
+    }
+
+    long getLong(long offset) {
+        return (long) getInt(offset) << 32 | getInt(offset + 4) & 0xFFFFFFFFL;
+    }
+
+    void put(long offset, byte value) {
+        slices[(int) (offset >>> sliceBits)].put((int) (offset & sliceMask), value);
+    }
+
+    void putInt(long offset, int value) {
+        for (int i = 0; i < 4; i++) {
+            put(offset + i, (byte) (value >>> (24 - 8 * i)));
+        }
+    }
+
+    void putLong(long offset, long value) {
+        putInt(offset, (int) (value >>> 32));
+        putInt(offset + 4, (int) value);
+    }
+
+    void force() {
+        for (MappedByteBuffer slice : slices) {
+            slice.force();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package account;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/*
+Paging shared by the list endpoints. A requested page size is clamped to 1..max. Keyset pages that come back full
+carry the cursor for the next page in X-Next-Cursor; a full last page is followed by an empty one without it.
+ */
+final class Paging {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private Paging() {
+    }
+
+    static int size(Integer requested, int defaultSize, int maxSize) {
+        return requested == null ? defaultSize : Math.max(1, Math.min(requested, maxSize));
+    }
+
+    static <T> ResponseEntity<List<T>> keysetPage(List<T> items, int size, Function<T, String> cursor) {
+        var response = ResponseEntity.ok();
+        if (items.size() == size) response.header(NEXT_CURSOR_HEADER, cursor.apply(items.get(size - 1)));
+        return response.body(items);
+    }
+}
@@ -0,0 +1,80 @@
+package account;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+/*
+Writes payslips without String.format or DateTimeFormatter: month names come from a table built once, and the
+digits of the year and salary are written straight into a per-thread char buffer handed to the generator, which
+copies it out. Output is identical to the old "MMMM-yyyy" pattern and "%d dollar(s) %d cent(s)" format in English.
+ */
+class PaymentResponseSerializer extends StdSerializer<EmployeeController.PaymentResponse> {
+    private static final char[][] MONTHS = new char[12][];
+    private static final char[] DOLLARS = " dollar(s) ".toCharArray();
+    private static final char[] CENTS = " cent(s)".toCharArray();
+    // longest value is a 19-digit salary: 19 + 11 + 2 + 8 chars
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[64]);
+
+    static {
+        // fixed so that payslips do not change with the host's locale
+        for (Month month : Month.values()) {
+            MONTHS[month.ordinal()] = month.getDisplayName(TextStyle.FULL, Locale.ENGLISH).toCharArray();
+        }
+    }
+
+    PaymentResponseSerializer() {
+        super(EmployeeController.PaymentResponse.class);
+    }
+
+    @Override
+    public void serialize(EmployeeController.PaymentResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] buffer = BUFFER.get();
+        gen.writeStartObject(value);
+        gen.writeStringField("name", value.name());
+        gen.writeStringField("lastname", value.lastname());
+        gen.writeFieldName("period");
+        gen.writeString(buffer, 0, period(value.period(), buffer));
+        gen.writeFieldName("salary");
+        gen.writeString(buffer, 0, salary(value.salary(), buffer));
+        gen.writeEndObject();
+    }
+
+    static int period(YearMonth period, char[] buffer) {
+        char[] month = MONTHS[period.getMonthValue() - 1];
+        System.arraycopy(month, 0, buffer, 0, month.length);
+        int pos = month.length;
+        buffer[pos++] = '-';
+        int year = period.getYear();
+        if (year > 9999) buffer[pos++] = '+';
+        return appendDigits(year, 4, buffer, pos);
+    }
+
+    static int salary(long cents, char[] buffer) {
+        int pos = appendDigits(cents / 100, 1, buffer, 0);
+        System.arraycopy(DOLLARS, 0, buffer, pos, DOLLARS.length);
+        pos = appendDigits(cents % 100, 1, buffer, pos + DOLLARS.length);
+        System.arraycopy(CENTS, 0, buffer, pos, CENTS.length);
+        return pos + CENTS.length;
+    }
+
+    /*
+    Appends a non-negative number, zero-padded to minDigits, and returns the position after it.
+     */
+    private static int appendDigits(long number, int minDigits, char[] buffer, int pos) {
+        int digits = 1;
+        for (long n = number / 10; n > 0; n /= 10) digits++;
+        digits = Math.max(digits, minDigits);
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buffer[i] = (char) ('0' + number % 10);
+            number /= 10;
+        }
+        return pos + digits;
+    }
+}
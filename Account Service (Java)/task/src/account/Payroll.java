@@ -1,16 +1,22 @@
 package account;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import jakarta.validation.constraints.Positive;
 
 import java.sql.Date;
 import java.time.YearMonth;
 
 @Entity
-@Table(name = "payroll", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "period"}))
+@Table(name = "payroll", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "period"}),
+        indexes = @Index(name = "payroll_user_period_desc_idx", columnList = "user_id, period DESC"))
 public class Payroll {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "payroll_seq")
+    @GenericGenerator(name = "payroll_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "payroll_seq"))
     @Column(name = "id", nullable = false)
     long id;
 
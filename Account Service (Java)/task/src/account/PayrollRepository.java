@@ -2,12 +2,17 @@ package account;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.YearMonth;
-import java.util.stream.Stream;
+import java.util.Collection;
+import java.util.List;
 
-public interface PayrollRepository extends JpaRepository<Payroll, Long> {
+public interface PayrollRepository extends JpaRepository<Payroll, Long>, PayrollSearch {
     Payroll findByUserAndPeriod(User user, YearMonth period);
 
-    Stream<Payroll> findByUserOrderByPeriodDesc(User user);
+    List<Payroll> findByUserOrderByPeriodDesc(User user);
+
+    @Query("select new account.PayrollService$PayrollKey(p.user.id, p.period) from Payroll p where p.user.id in :userIds and p.period between :from and :to")
+    List<PayrollService.PayrollKey> findKeysByUserIdInAndPeriodBetween(Collection<Long> userIds, YearMonth from, YearMonth to);
 }
@@ -0,0 +1,12 @@
+package account;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface PayrollSearch {
+    /*
+    Keyset page: the user's first `limit` payrolls from `from` to `to` inclusive, newest first. A null bound leaves
+    that side of the range open.
+     */
+    List<Payroll> findPage(User user, YearMonth from, YearMonth to, int limit);
+}
@@ -0,0 +1,35 @@
+package account;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+class PayrollSearchImpl implements PayrollSearch {
+    private final EntityManager entityManager;
+
+    PayrollSearchImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Payroll> findPage(User user, YearMonth from, YearMonth to, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Payroll> query = cb.createQuery(Payroll.class);
+        Root<Payroll> payroll = query.from(Payroll.class);
+
+        // open bounds add no predicate rather than a sentinel period
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(payroll.get("user"), user));
+        if (from != null) predicates.add(cb.greaterThanOrEqualTo(payroll.get("period"), from));
+        if (to != null) predicates.add(cb.lessThanOrEqualTo(payroll.get("period"), to));
+
+        query.select(payroll).where(predicates.toArray(Predicate[]::new)).orderBy(cb.desc(payroll.get("period")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -1,31 +1,114 @@
 package account;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.YearMonth;
+import java.util.*;
 
 @Service
 public class PayrollService {
     private final PayrollRepository payrollRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final PayslipCache payslipCache;
+    private final EntityManager entityManager;
+    private final int batchSize;
+    private final Timer batchTimer;
+    private final Counter rowsIngested;
 
-    PayrollService(PayrollRepository payrollRepository, UserRepository userRepository) {
+    PayrollService(PayrollRepository payrollRepository, UserRepository userRepository, UserCache userCache, PayslipCache payslipCache,
+                   EntityManager entityManager, MeterRegistry meterRegistry, @Value("${account.payroll.batch-size:500}") int batchSize) {
         this.payrollRepository = payrollRepository;
         this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.payslipCache = payslipCache;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+        this.batchTimer = meterRegistry.timer("account.payroll.batch");
+        this.rowsIngested = meterRegistry.counter("account.payroll.rows");
     }
 
-    Payroll addPayroll(String email, YearMonth period, long amount) {
-        User u = userRepository.findByEmailIgnoreCase(email);
-        Payroll p = new Payroll(u, period, amount);
-        return payrollRepository.save(p);
+    /*
+    Resolves all employees in one query per chunk, rejects duplicates within the upload and against stored payrolls,
+    then persists in batch-size chunks that Hibernate sends as JDBC batches. Runs in the caller's transaction, so a failure leaves nothing behind.
+     */
+    @Transactional
+    void addPayrolls(List<AccountantController.PayrollRequest> requests) {
+        batchTimer.record(() -> insertPayrolls(requests));
+        rowsIngested.increment(requests.size());
+    }
+
+    private void insertPayrolls(List<AccountantController.PayrollRequest> requests) {
+        Map<String, Long> userIds = new HashMap<>();
+        List<String> emails = requests.stream().map(r -> User.normaliseEmail(r.employee())).distinct().toList();
+        for (List<String> chunk : chunks(emails)) {
+            for (UserRepository.EmailAndId user : userRepository.findIdsByEmailIn(chunk)) {
+                userIds.put(user.getEmail(), user.getId());
+            }
+        }
+
+        Set<PayrollKey> keys = new HashSet<>();
+        for (AccountantController.PayrollRequest request : requests) {
+            Long userId = userIds.get(User.normaliseEmail(request.employee()));
+            // row-by-row saves failed the user_id not-null check for unknown employees, which answered like a duplicate
+            if (userId == null) throw new AccountantController.DuplicatePayrollException();
+            if (!keys.add(new PayrollKey(userId, request.period()))) throw new AccountantController.DuplicatePayrollException();
+        }
+
+        if (keys.isEmpty()) return;
+        // a period range rather than an IN list: H2 compares IN lists linearly per row
+        YearMonth from = Collections.min(keys, Comparator.comparing(PayrollKey::period)).period();
+        YearMonth to = Collections.max(keys, Comparator.comparing(PayrollKey::period)).period();
+        for (List<Long> chunk : chunks(new ArrayList<>(userIds.values()))) {
+            for (PayrollKey existing : payrollRepository.findKeysByUserIdInAndPeriodBetween(chunk, from, to)) {
+                if (keys.contains(existing)) throw new AccountantController.DuplicatePayrollException();
+            }
+        }
+
+        List<Payroll> payrolls = new ArrayList<>(Math.min(batchSize, requests.size()));
+        for (AccountantController.PayrollRequest request : requests) {
+            User user = userRepository.getReferenceById(userIds.get(User.normaliseEmail(request.employee())));
+            payrolls.add(new Payroll(user, request.period(), request.salary()));
+            if (payrolls.size() == batchSize) save(payrolls);
+        }
+        save(payrolls);
+        keys.forEach(k -> payslipCache.evict(k.userId(), k.period()));
     }
 
     Payroll updatePayroll(String email, YearMonth period, long salary) {
-        User u = userRepository.findByEmailIgnoreCase(email);
+        User u = userCache.findByEmail(email);
         if (u == null) { throw new UserDetailsService.NotFoundException("User not found"); }
         Payroll p = payrollRepository.findByUserAndPeriod(u, period);
         if (p == null) { throw new UserDetailsService.NotFoundException("Salary not found"); }
         p.salary = salary;
-        return payrollRepository.save(p);
+        p = payrollRepository.save(p);
+        payslipCache.evict(u.id, period);
+        return p;
+    }
+
+    private void save(List<Payroll> payrolls) {
+        payrollRepository.saveAll(payrolls);
+        // flushing through the repository turns a duplicate that raced past the check into DataIntegrityViolationException
+        payrollRepository.flush();
+        // keeps dirty checking from growing with the size of the upload
+        entityManager.clear();
+        payrolls.clear();
+    }
+
+    private <T> List<List<T>> chunks(List<T> list) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < list.size(); i += batchSize) {
+            chunks.add(list.subList(i, Math.min(i + batchSize, list.size())));
+        }
+        return chunks;
+    }
+
+    record PayrollKey(long userId, YearMonth period) {
     }
 }
@@ -0,0 +1,142 @@
+package account;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+Rendered payslips per employee: the full history and single periods, each with an ETag.
+PayrollService evicts exactly what it changes, and a deleted user's entry goes with their UserChangedEvent. Inside a
+transaction the eviction is repeated after commit, so a read racing the write can't re-cache the old rows.
+The ETag is the generation the payslips were loaded in. Every new entry and every eviction takes the next number from
+one counter, so no two loads share a generation, even for a user whose entry was dropped and created again. A random
+prefix per instance keeps ETags from other instances or earlier runs from matching.
+ */
+@Component
+public class PayslipCache {
+    private final Map<Long, Payslips> payslips = new ConcurrentHashMap<>();
+    private final AtomicLong generations = new AtomicLong();
+    private final String instance = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final int maxUsers;
+    private final Counter hits;
+    private final Counter misses;
+
+    PayslipCache(MeterRegistry meterRegistry, @Value("${account.payslip-cache.max-users:10000}") int maxUsers) {
+        this.maxUsers = maxUsers;
+        Tags tags = Tags.of("cache", "payslips");
+        this.hits = meterRegistry.counter("cache.gets", tags.and("result", "hit"));
+        this.misses = meterRegistry.counter("cache.gets", tags.and("result", "miss"));
+        meterRegistry.gaugeMapSize("cache.size", tags, payslips);
+    }
+
+    public Cached<List<EmployeeController.PaymentResponse>> getAll(long userId, Supplier<List<EmployeeController.PaymentResponse>> loader) {
+        Payslips entry = entry(userId);
+        Cached<List<EmployeeController.PaymentResponse>> all = entry.all;
+        if (all != null) {
+            hits.increment();
+            return all;
+        }
+        misses.increment();
+        long generation = entry.generation;
+        all = cached(loader.get(), generation);
+        synchronized (entry) {
+            if (entry.generation == generation) entry.all = all;
+        }
+        return all;
+    }
+
+    public Cached<EmployeeController.PaymentResponse> get(long userId, YearMonth period, Supplier<EmployeeController.PaymentResponse> loader) {
+        Payslips entry = entry(userId);
+        Cached<EmployeeController.PaymentResponse> payslip = entry.byPeriod.get(period);
+        if (payslip != null) {
+            hits.increment();
+            return payslip;
+        }
+        misses.increment();
+        long generation = entry.generation;
+        payslip = cached(loader.get(), generation);
+        synchronized (entry) {
+            if (entry.generation == generation) entry.byPeriod.put(period, payslip);
+        }
+        return payslip;
+    }
+
+    public void evict(long userId, YearMonth period) {
+        afterCommit(() -> {
+            Payslips entry = payslips.get(userId);
+            if (entry == null) return;
+            synchronized (entry) {
+                entry.generation = generations.incrementAndGet();
+                entry.all = null;
+                entry.byPeriod.remove(period);
+            }
+        });
+    }
+
+    public void evictUser(long userId) {
+        afterCommit(() -> payslips.remove(userId));
+    }
+
+    @EventListener
+    void onUserChanged(UserChangedEvent event) {
+        if (event.change() == UserChangedEvent.Change.DELETED) evictUser(event.userId());
+    }
+
+    private Payslips entry(long userId) {
+        Payslips entry = payslips.get(userId);
+        if (entry != null) return entry;
+        if (payslips.size() >= maxUsers) {
+            var iterator = payslips.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        return payslips.computeIfAbsent(userId, id -> new Payslips(generations.incrementAndGet()));
+    }
+
+    /*
+    Weak: it names the content, not one encoding of it, and Tomcat won't gzip a response with a strong ETag.
+     */
+    private <T> Cached<T> cached(T value, long generation) {
+        return new Cached<>(value, "W/\"" + instance + "-" + generation + "\"");
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static final class Payslips {
+        private final Map<YearMonth, Cached<EmployeeController.PaymentResponse>> byPeriod = new ConcurrentHashMap<>();
+        private volatile Cached<List<EmployeeController.PaymentResponse>> all;
+        private volatile long generation;
+
+        Payslips(long generation) {
+            this.generation = generation;
+        }
+    }
+
+    record Cached<T>(T value, String etag) {
+    }
+}
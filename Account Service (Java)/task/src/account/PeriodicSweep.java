@@ -0,0 +1,41 @@
+package account;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/*
+Bounds a concurrent map without dropping live entries. Once the map is full, one caller per interval removes the
+entries that are safe to drop; the others go on without waiting, so a caller filling the map can't make every
+request pay for an O(n) scan.
+ */
+final class PeriodicSweep {
+    static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(1);
+
+    private final long intervalNanos;
+    private final AtomicLong nextAt;
+
+    PeriodicSweep(Duration interval, long now) {
+        this.intervalNanos = interval.toNanos();
+        this.nextAt = new AtomicLong(now);
+    }
+
+    /*
+    True for the one caller that should sweep now.
+     */
+    boolean claim(long now) {
+        long at = nextAt.get();
+        return now - at >= 0 && nextAt.compareAndSet(at, now + intervalNanos);
+    }
+
+    /*
+    Whether the map has room for another key, sweeping out removable values first if it is full and this caller's turn.
+     */
+    <V> boolean hasRoom(Map<?, V> map, int maxSize, long now, Predicate<? super V> removable) {
+        if (map.size() < maxSize) return true;
+        if (!claim(now)) return false;
+        map.values().removeIf(removable);
+        return map.size() < maxSize;
+    }
+}
@@ -0,0 +1,27 @@
+package account;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/*
+Sequence ids handed out in blocks by the pooled optimizer, so inserts don't need a round trip for their key and
+Hibernate can batch them. The block size comes from account.id.allocation-size and must match the sequences'
+INCREMENT BY, which the migrations set from the same property.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    static final String ALLOCATION_SIZE = "account.id.allocation-size";
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        Object allocationSize = serviceRegistry.getService(ConfigurationService.class).getSettings().get(ALLOCATION_SIZE);
+        if (allocationSize != null) parameters.setProperty(INCREMENT_PARAM, allocationSize.toString());
+        parameters.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -2,6 +2,7 @@ package account;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
@@ -13,6 +14,23 @@ public class RestAuthenticationEntryPoint implements AuthenticationEntryPoint {
 
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException) throws IOException {
-        response.sendError(HttpServletResponse.SC_UNAUTHORIZED, authException.getMessage());
+        if (!rejectIfBusy(response, authException)) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, authException.getMessage());
+        }
+    }
+
+    /*
+    Answers 503 with Retry-After when the login failed only because the password hashing pool was full.
+    DaoAuthenticationProvider wraps failures while loading the user, so the causes are searched too.
+     */
+    static boolean rejectIfBusy(HttpServletResponse response, AuthenticationException authException) throws IOException {
+        for (Throwable e = authException; e != null; e = e.getCause()) {
+            if (e instanceof BoundedPasswordEncoder.PasswordHashingBusyException) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+                return true;
+            }
+        }
+        return false;
     }
 }
\ No newline at end of file
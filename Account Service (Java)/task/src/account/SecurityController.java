@@ -1,25 +1,106 @@
 package account;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("api/security")
 public class SecurityController {
+    static final String NDJSON = "application/x-ndjson";
 
     private final SecurityEventRepository securityEventRepository;
+    private final SecurityEventJournal securityEventJournal;
+    private final EntityManager entityManager;
+    private final ObjectWriter exportWriter;
+    private final int pageSize;
+    private final int maxPageSize;
+    // reads give the journal this long to save queued events, so auditors see recent ones without forcing a write
+    private final Duration readWait;
 
-    SecurityController(SecurityEventRepository securityEventRepository) {
+    SecurityController(SecurityEventRepository securityEventRepository, SecurityEventJournal securityEventJournal,
+                       EntityManager entityManager, ObjectMapper objectMapper,
+                       @Value("${account.security-events.page-size:1000}") int pageSize,
+                       @Value("${account.security-events.max-page-size:5000}") int maxPageSize,
+                       @Value("${account.security-events.read-wait:PT1S}") Duration readWait) {
         this.securityEventRepository = securityEventRepository;
+        this.securityEventJournal = securityEventJournal;
+        this.entityManager = entityManager;
+        this.exportWriter = objectMapper.writerFor(SecurityEventResponse.class)
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+        this.pageSize = pageSize;
+        this.maxPageSize = maxPageSize;
+        this.readWait = readWait;
     }
 
+    /*
+    Pages by id: when a page is full, the X-Next-Cursor header holds the value to pass as `after` for the next one.
+     */
     @GetMapping("events/")
-    List<SecurityEventResponse> listEvents() {
-        return securityEventRepository.findAll().stream().map(SecurityEventResponse::new).toList();
+    ResponseEntity<List<SecurityEventResponse>> listEvents(@RequestParam(required = false) Action action,
+                                                           @RequestParam(required = false) String subject,
+                                                           @RequestParam(required = false) String object,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                           @RequestParam(defaultValue = "0") long after,
+                                                           @RequestParam(required = false) Integer limit) {
+        int size = Paging.size(limit, pageSize, maxPageSize);
+        securityEventJournal.awaitWritten(readWait);
+        var filter = new SecurityEventSearch.Filter(action, subject, object, from, to);
+        List<SecurityEventResponse> events = securityEventRepository.search(filter, after, size).stream().map(SecurityEventResponse::new).toList();
+        return Paging.keysetPage(events, size, e -> Long.toString(e.id()));
+    }
+
+    /*
+    Streams every event with an id above `since` as one JSON object per line, straight from a database cursor.
+    To resume an interrupted export, pass the id of the last line received as `since`.
+     */
+    @GetMapping(value = "events/export", produces = NDJSON)
+    @Transactional
+    void exportEvents(@RequestParam(defaultValue = "0") long since, @RequestParam(defaultValue = "false") boolean gzip,
+                      HttpServletResponse response) throws IOException {
+        securityEventJournal.awaitWritten(readWait);
+        response.setContentType(NDJSON);
+        OutputStream out = response.getOutputStream();
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            out = new GZIPOutputStream(out, 8192);
+        }
+        try (JsonGenerator generator = exportWriter.createGenerator(out);
+             Stream<SecurityEvent> events = securityEventRepository.streamByIdGreaterThanOrderById(since)) {
+            events.forEach(event -> {
+                try {
+                    exportWriter.writeValue(generator, new SecurityEventResponse(event));
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                entityManager.detach(event);
+            });
+        }
     }
 
     record SecurityEventResponse(long id, LocalDate date, Action action, String subject, String object, String path) {
@@ -1,13 +1,24 @@
 package account;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "security_event_action_idx", columnList = "action, id"),
+        @Index(name = "security_event_subject_idx", columnList = "subject, id"),
+        @Index(name = "security_event_object_idx", columnList = "object, id"),
+        @Index(name = "security_event_date_idx", columnList = "date, id")
+})
 public class SecurityEvent {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "security_event_seq")
+    @GenericGenerator(name = "security_event_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "security_event_seq"))
     long id;
     LocalDate date;
     @Enumerated(EnumType.STRING)
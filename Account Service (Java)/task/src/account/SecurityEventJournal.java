@@ -0,0 +1,204 @@
+package account;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+Takes security events off the request thread: they are queued and written in batches by a background writer,
+every flush interval or as soon as a full batch is waiting. Only the writer touches the database.
+An event is never dropped. A batch that fails to save stays with the writer, which retries it with a growing pause
+while the queue takes the events behind it. A full queue makes callers wait up to append-timeout for room and then
+fails their request, rather than carry on without an audit record.
+The writer is a virtual thread when account.virtual-threads.enabled is set; waiting uses a lock rather than a
+monitor so a virtual thread doesn't pin its carrier.
+ */
+@Component
+public class SecurityEventJournal {
+    private static final Logger log = LoggerFactory.getLogger(SecurityEventJournal.class);
+    private static final long MAX_RETRY_NANOS = Duration.ofMinutes(1).toNanos();
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final SecurityEventRepository securityEventRepository;
+    private final BlockingQueue<Queued> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long appendTimeoutNanos;
+    private final Thread writer;
+    // events accepted and events saved so far; readers wait for the second to catch up with the first
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong saved = new AtomicLong();
+    private final Lock progressLock = new ReentrantLock();
+    private final Condition progress = progressLock.newCondition();
+    private final Counter written;
+    private final Counter failed;
+    private final Counter backpressure;
+    private final Timer queueLatency;
+    private final Timer writeLatency;
+    private volatile boolean running = true;
+    private volatile boolean failing;
+
+    SecurityEventJournal(SecurityEventRepository securityEventRepository, MeterRegistry meterRegistry,
+                         @Value("${account.security-events.queue-capacity:10000}") int queueCapacity,
+                         @Value("${account.security-events.batch-size:100}") int batchSize,
+                         @Value("${account.security-events.flush-interval:PT1S}") Duration flushInterval,
+                         @Value("${account.security-events.append-timeout:PT5S}") Duration appendTimeout,
+                         @Value("${account.virtual-threads.enabled:false}") boolean virtualThreads) {
+        this.securityEventRepository = securityEventRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.appendTimeoutNanos = appendTimeout.toNanos();
+        meterRegistry.gauge("account.security.events.queue", queue, BlockingQueue::size);
+        this.written = meterRegistry.counter("account.security.events.written");
+        this.failed = meterRegistry.counter("account.security.events.failed");
+        this.backpressure = meterRegistry.counter("account.security.events.backpressure");
+        this.queueLatency = meterRegistry.timer("account.security.events.queue.latency");
+        this.writeLatency = meterRegistry.timer("account.security.events.write");
+        if (virtualThreads) {
+            this.writer = VirtualThreads.newThread("security-event-journal", this::run);
+        } else {
+            this.writer = new Thread(this::run, "security-event-journal");
+            this.writer.setDaemon(true);
+        }
+        this.writer.start();
+    }
+
+    public void append(SecurityEvent event) {
+        Queued queued = new Queued(event, System.nanoTime());
+        // counted before it is queued, so a reader never waits for less than what it may already see queued
+        appended.incrementAndGet();
+        if (!queue.offer(queued)) {
+            backpressure.increment();
+            wakeWriter();
+            try {
+                if (!queue.offer(queued, appendTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    appended.decrementAndGet();
+                    throw new JournalUnavailableException();
+                }
+            } catch (InterruptedException e) {
+                appended.decrementAndGet();
+                Thread.currentThread().interrupt();
+                throw new JournalUnavailableException();
+            }
+        }
+        if (queue.size() >= batchSize) wakeWriter();
+    }
+
+    /*
+    Waits up to `timeout` for the events appended so far to be saved, so readers of the audit log see their own
+    events. Returns at once when nothing is pending; otherwise the writer saves the pending events now instead of at
+    the end of its interval. False if they weren't saved in time.
+     */
+    public boolean awaitWritten(Duration timeout) {
+        long target = appended.get();
+        if (saved.get() >= target) return true;
+        wakeWriter();
+        long left = timeout.toNanos();
+        progressLock.lock();
+        try {
+            while (saved.get() < target) {
+                if (left <= 0) return false;
+                left = progress.awaitNanos(left);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            progressLock.unlock();
+        }
+    }
+
+    private void wakeWriter() {
+        // while saves fail the writer keeps to its retry pause
+        if (!failing) LockSupport.unpark(writer);
+    }
+
+    private void run() {
+        List<Queued> batch = new ArrayList<>(batchSize);
+        long pause = flushIntervalNanos;
+        while (running || !batch.isEmpty() || !queue.isEmpty()) {
+            if (running || failing) LockSupport.parkNanos(this, pause);
+            failing = !writeQueued(batch);
+            pause = failing ? Math.min(pause * 2, MAX_RETRY_NANOS) : flushIntervalNanos;
+        }
+    }
+
+    /*
+    Saves queued events batch by batch. False when a save failed; the failed batch is left in `batch` for the next try.
+     */
+    private boolean writeQueued(List<Queued> batch) {
+        while (!batch.isEmpty() || queue.drainTo(batch, batchSize) > 0) {
+            if (!save(batch)) return false;
+            batch.clear();
+        }
+        return true;
+    }
+
+    private boolean save(List<Queued> batch) {
+        List<SecurityEvent> events = new ArrayList<>(batch.size());
+        for (Queued queued : batch) events.add(queued.event);
+        long start = System.nanoTime();
+        try {
+            securityEventRepository.saveAll(events);
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Could not save {} security events, will retry", batch.size(), e);
+            // the rolled back insert may have assigned ids; unset, the retry inserts them afresh
+            for (SecurityEvent event : events) event.id = 0;
+            return false;
+        }
+        long end = System.nanoTime();
+        writeLatency.record(end - start, TimeUnit.NANOSECONDS);
+        for (Queued queued : batch) queueLatency.record(end - queued.enqueuedAt, TimeUnit.NANOSECONDS);
+        written.increment(batch.size());
+        saved.addAndGet(batch.size());
+        progressLock.lock();
+        try {
+            progress.signalAll();
+        } finally {
+            progressLock.unlock();
+        }
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(SHUTDOWN_TIMEOUT.toMillis());
+        if (writer.isAlive()) {
+            log.error("Stopping with {} security events not saved", appended.get() - saved.get());
+        }
+    }
+
+    record Queued(SecurityEvent event, long enqueuedAt) {
+    }
+
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    static class JournalUnavailableException extends RuntimeException {
+        JournalUnavailableException() {
+            super("Security events can't be recorded right now!");
+        }
+    }
+}
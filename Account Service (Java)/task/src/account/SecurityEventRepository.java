@@ -1,6 +1,13 @@
 package account;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface SecurityEventRepository extends JpaRepository<SecurityEvent, Long> {
+import java.util.stream.Stream;
+
+public interface SecurityEventRepository extends JpaRepository<SecurityEvent, Long>, SecurityEventSearch {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<SecurityEvent> streamByIdGreaterThanOrderById(long id);
 }
@@ -0,0 +1,14 @@
+package account;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SecurityEventSearch {
+    /*
+    Keyset page: the first `limit` events with an id above `afterId` that match the filter, in id order.
+     */
+    List<SecurityEvent> search(Filter filter, long afterId, int limit);
+
+    record Filter(Action action, String subject, String object, LocalDate from, LocalDate to) {
+    }
+}
@@ -0,0 +1,41 @@
+package account;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class SecurityEventSearchImpl implements SecurityEventSearch {
+    private final EntityManager entityManager;
+
+    SecurityEventSearchImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<SecurityEvent> search(Filter filter, long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<SecurityEvent> query = cb.createQuery(SecurityEvent.class);
+        Root<SecurityEvent> event = query.from(SecurityEvent.class);
+
+        // only add the predicates that are set, so each combination can use its own index
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThan(event.get("id"), afterId));
+        if (filter.action() != null) predicates.add(cb.equal(event.get("action"), filter.action()));
+        if ("Anonymous".equals(filter.subject())) {
+            predicates.add(cb.or(cb.isNull(event.get("subject")), cb.equal(event.get("subject"), filter.subject())));
+        } else if (filter.subject() != null) {
+            predicates.add(cb.equal(event.get("subject"), filter.subject()));
+        }
+        if (filter.object() != null) predicates.add(cb.equal(event.get("object"), filter.object()));
+        if (filter.from() != null) predicates.add(cb.greaterThanOrEqualTo(event.get("date"), filter.from()));
+        if (filter.to() != null) predicates.add(cb.lessThanOrEqualTo(event.get("date"), filter.to()));
+
+        query.select(event).where(predicates.toArray(Predicate[]::new)).orderBy(cb.asc(event.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -13,17 +13,17 @@ public class SecurityEventService {
 
     private final HttpServletRequest request;
     private final ApplicationEventPublisher applicationEventPublisher;
-    private final SecurityEventRepository securityEventRepository;
+    private final SecurityEventJournal securityEventJournal;
 
-    public SecurityEventService(HttpServletRequest request, ApplicationEventPublisher applicationEventPublisher, SecurityEventRepository securityEventRepository) {
+    public SecurityEventService(HttpServletRequest request, ApplicationEventPublisher applicationEventPublisher, SecurityEventJournal securityEventJournal) {
         this.request = request;
         this.applicationEventPublisher = applicationEventPublisher;
-        this.securityEventRepository = securityEventRepository;
+        this.securityEventJournal = securityEventJournal;
     }
 
     @EventListener
     void handleSecurityEvent(SecurityEvent event) {
-        securityEventRepository.save(event);
+        securityEventJournal.append(event);
     }
 
     public void createEvent(Action action, String object) {
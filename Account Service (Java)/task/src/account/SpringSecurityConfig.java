@@ -4,39 +4,57 @@ import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
-import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 public class SpringSecurityConfig {
     private final RestAuthenticationEntryPoint restAuthenticationEntryPoint;
     private final CustomAccessDeniedHandler customAccessDeniedHandler;
     private final BruteForceFilter bruteForceFilter;
+    private final TokenService tokenService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final UserCache userCache;
+    private final CredentialCache credentialCache;
 
-    SpringSecurityConfig(RestAuthenticationEntryPoint restAuthenticationEntryPoint, CustomAccessDeniedHandler customAccessDeniedHandler, BruteForceFilter bruteForceFilter) {
+    SpringSecurityConfig(RestAuthenticationEntryPoint restAuthenticationEntryPoint, CustomAccessDeniedHandler customAccessDeniedHandler, BruteForceFilter bruteForceFilter, TokenService tokenService, LoginRateLimiter loginRateLimiter, UserCache userCache, CredentialCache credentialCache) {
         this.restAuthenticationEntryPoint = restAuthenticationEntryPoint;
         this.customAccessDeniedHandler = customAccessDeniedHandler;
         this.bruteForceFilter = bruteForceFilter;
+        this.tokenService = tokenService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.userCache = userCache;
+        this.credentialCache = credentialCache;
     }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        BasicAuthenticationEntryPoint basicEntryPoint = new BasicAuthenticationEntryPoint();
+        basicEntryPoint.setRealmName("Realm");
         http
-                .httpBasic(Customizer.withDefaults())
+                .httpBasic(basic -> basic.authenticationEntryPoint((request, response, e) -> {
+                    if (!RestAuthenticationEntryPoint.rejectIfBusy(response, e)) {
+                        basicEntryPoint.commence(request, response, e);
+                    }
+                })) // 503 when password hashing is saturated, otherwise the usual challenge
                 .exceptionHandling(ex -> ex
                         .authenticationEntryPoint(restAuthenticationEntryPoint)
                         .accessDeniedHandler(customAccessDeniedHandler)
                 ) // Handle auth errors
                 .csrf(csrf -> csrf.disable()) // For Postman
                 .headers(headers -> headers.frameOptions().disable()) // For the H2 console
+                .addFilterBefore(new LoginRateLimitFilter(loginRateLimiter, userCache, credentialCache), BasicAuthenticationFilter.class)
+                .addFilterBefore(new BearerTokenFilter(tokenService), BasicAuthenticationFilter.class)
                 .addFilterBefore(bruteForceFilter, AuthorizationFilter.class)
                 .authorizeHttpRequests(auth -> auth  // manage access
                                 .dispatcherTypeMatchers(DispatcherType.ERROR, DispatcherType.FORWARD).permitAll()
                                 .requestMatchers(HttpMethod.POST, "/api/auth/signup").permitAll()
                                 .requestMatchers(HttpMethod.POST, "/api/auth/changepass").authenticated()
+                                .requestMatchers(HttpMethod.POST, "/api/auth/token").authenticated()
                                 .requestMatchers(HttpMethod.GET, "/api/empl/payment").hasAnyRole(Role.ACCOUNTANT.name(), Role.USER.name())
                                 .requestMatchers(HttpMethod.POST, "/api/acct/payments").hasRole(Role.ACCOUNTANT.name())
                                 .requestMatchers(HttpMethod.PUT, "/api/acct/payments").hasRole(Role.ACCOUNTANT.name())
@@ -45,7 +63,9 @@ public class SpringSecurityConfig {
                                 .requestMatchers(HttpMethod.PUT, "/api/admin/user/role").hasRole(Role.ADMINISTRATOR.name())
                                 .requestMatchers(HttpMethod.PUT, "/api/admin/user/access").hasRole(Role.ADMINISTRATOR.name())
                                 .requestMatchers(HttpMethod.GET, "/api/security/events/").hasRole(Role.AUDITOR.name())
+                                .requestMatchers(HttpMethod.GET, "/api/security/events/export").hasRole(Role.AUDITOR.name())
                                 .requestMatchers(HttpMethod.POST, "/actuator/shutdown").permitAll()
+                                .requestMatchers(HttpMethod.GET, "/actuator/metrics", "/actuator/metrics/{name}", "/actuator/prometheus").hasAnyRole(Role.ADMINISTRATOR.name(), Role.AUDITOR.name())
                                 .requestMatchers("/error").permitAll()
                                 .anyRequest().denyAll()
                         // other matchers
@@ -1,5 +1,7 @@
 package account;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.context.event.EventListener;
 import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
@@ -14,14 +16,18 @@ import java.io.IOException;
 public class SpringSecurityEventHandler {
     private final SecurityEventService eventService;
     private final BruteForceCounter bruteForceCounter;
+    private final LoginRateLimiter loginRateLimiter;
     private final UserDetailsService userDetailsService;
     private final HttpServletRequest request;
+    private final Counter lockouts;
 
-    SpringSecurityEventHandler(SecurityEventService eventService, BruteForceCounter bruteForceCounter, UserDetailsService userDetailsService, HttpServletRequest request) {
+    SpringSecurityEventHandler(SecurityEventService eventService, BruteForceCounter bruteForceCounter, LoginRateLimiter loginRateLimiter, UserDetailsService userDetailsService, HttpServletRequest request, MeterRegistry meterRegistry) {
         this.eventService = eventService;
         this.bruteForceCounter = bruteForceCounter;
+        this.loginRateLimiter = loginRateLimiter;
         this.userDetailsService = userDetailsService;
         this.request = request;
+        this.lockouts = meterRegistry.counter("account.brute.force.lockouts");
     }
 
     @EventListener
@@ -35,11 +41,13 @@ public class SpringSecurityEventHandler {
     void handleBadCredentials(AuthenticationFailureBadCredentialsEvent event) {
         String email = event.getAuthentication().getPrincipal().toString();
         eventService.createEvent(Action.LOGIN_FAILED, request.getRequestURI(), email);
+        loginRateLimiter.failed(request.getRemoteAddr(), email);
         bruteForceCounter.increment(email);
         if (bruteForceCounter.isBlocked(email)) {
             eventService.createEvent(Action.BRUTE_FORCE, request.getRequestURI(), email);
             try {
                 userDetailsService.lock(email);
+                lockouts.increment();
             } catch (UserDetailsService.CantLockAdministratorException ignored) {
                 // don't lock administrator to prevent inaccessible system
             }
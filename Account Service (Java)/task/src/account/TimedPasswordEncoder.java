@@ -0,0 +1,35 @@
+package account;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/*
+Records how long hashing takes, as account.password.encoder{operation=encode|matches}.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final Timer encode;
+    private final Timer matches;
+
+    TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encode = meterRegistry.timer("account.password.encoder", "operation", "encode");
+        this.matches = meterRegistry.timer("account.password.encoder", "operation", "matches");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encode.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return matches.record(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
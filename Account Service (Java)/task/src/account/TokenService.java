@@ -0,0 +1,142 @@
+package account;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Issues and verifies short-lived HMAC-signed bearer tokens, so clients don't pay for BCrypt and a user lookup per request.
+A token is "<base64url claims>.<base64url signature>".
+Tokens carry the user's token version from the database, and revoking bumps it there, so a revocation on one
+instance reaches every instance sharing the secret. Verification reads the version at most once per
+account.token.version-check for each user; that is how long other instances may still accept a revoked token.
+The same read gives the user's lock state, so BruteForceFilter sees a locked bearer like a locked Basic login.
+ */
+@Service
+@Lazy(false) // a missing secret fails startup, not the first login
+public class TokenService {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, CheckedVersion> versions = new ConcurrentHashMap<>();
+    private final UserRepository userRepository;
+    private final SecretKey key;
+    private final Duration ttl;
+    private final long versionCheckNanos;
+    private final PeriodicSweep sweep;
+
+    TokenService(UserRepository userRepository, @Value("${account.token.secret:}") String secret,
+                 @Value("${account.token.require-secret:false}") boolean requireSecret, @Value("${account.token.ttl:PT15M}") Duration ttl,
+                 @Value("${account.token.version-check:PT5S}") Duration versionCheck) throws GeneralSecurityException {
+        if (secret.isEmpty() && requireSecret) {
+            throw new IllegalStateException("account.token.secret must be set: a random per-process key isn't shared with other instances");
+        }
+        this.userRepository = userRepository;
+        this.key = secret.isEmpty()
+                ? KeyGenerator.getInstance("HmacSHA256").generateKey()
+                : new SecretKeySpec(Base64.getDecoder().decode(secret), "HmacSHA256");
+        this.ttl = ttl;
+        this.versionCheckNanos = versionCheck.toNanos();
+        this.sweep = new PeriodicSweep(versionCheck, System.nanoTime());
+    }
+
+    public Token issue(User user) {
+        long now = System.currentTimeMillis();
+        // read afresh: the user may be a cached snapshot from before a revocation on another instance
+        Integer version = userRepository.findTokenVersionByEmail(user.email);
+        if (version == null) throw new IllegalStateException("User " + user.email + " no longer exists");
+        var claims = new Claims(user.id, user.email, user.name, user.lastname, user.roles, version, now, now + ttl.toMillis());
+        try {
+            String payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return new Token(payload + "." + ENCODER.encodeToString(sign(payload)), ttl.toSeconds());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+    Returns a detached User built from the token claims, or null when the token is malformed, forged, expired or revoked.
+     */
+    public User verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot < 0) return null;
+        String payload = token.substring(0, dot);
+        try {
+            if (!MessageDigest.isEqual(sign(payload), DECODER.decode(token.substring(dot + 1)))) return null;
+            Claims claims = objectMapper.readValue(DECODER.decode(payload), Claims.class);
+            if (claims.exp <= System.currentTimeMillis()) return null;
+            CheckedVersion current = currentVersion(claims.sub);
+            if (claims.ver != current.version) return null;
+            User user = new User(claims.name, claims.lastname, claims.sub, null, new HashSet<>(claims.roles));
+            user.id = claims.id;
+            user.locked = current.locked;
+            return user;
+        } catch (IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    /*
+    Rejects every token issued to this user up to now, on this instance at once.
+     */
+    public void revoke(String email) {
+        userRepository.incrementTokenVersion(email);
+        versions.remove(email);
+    }
+
+    @EventListener
+    void onUserChanged(UserChangedEvent event) {
+        if (event.change() != UserChangedEvent.Change.REHASHED) revoke(event.email());
+    }
+
+    /*
+    The stored token version and lock state; the version is -1 once the user is deleted, which no token carries.
+     */
+    private CheckedVersion currentVersion(String email) {
+        long now = System.nanoTime();
+        CheckedVersion checked = versions.get(email);
+        if (checked != null && now - checked.at < versionCheckNanos) return checked;
+        if (sweep.claim(now)) versions.values().removeIf(v -> now - v.at >= versionCheckNanos);
+        UserRepository.TokenState state = userRepository.findTokenStateByEmail(email);
+        checked = state == null ? new CheckedVersion(-1, false, now) : new CheckedVersion(state.getTokenVersion(), state.isLocked(), now);
+        versions.put(email, checked);
+        return checked;
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    record Token(String token, long expiresIn) {
+    }
+
+    record Claims(long id, String sub, String name, String lastname, Set<Role> roles, int ver, long iat, long exp) {
+    }
+
+    private record CheckedVersion(int version, boolean locked, long at) {
+    }
+}
@@ -1,23 +1,33 @@
 package account;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.Locale;
 import java.util.Set;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "user_email_uk", columnNames = "email"))
 public class User implements UserDetails {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "user_seq")
+    @GenericGenerator(name = "user_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "user_seq"))
     long id;
     String name;
     String lastname;
     String email;
     String password;
     boolean locked = false;
+    // only changed by UserRepository.incrementTokenVersion, so saving a loaded user can't roll it back
+    @Column(insertable = false, updatable = false)
+    int tokenVersion;
 
     @ElementCollection(fetch = FetchType.EAGER)
     @Enumerated(EnumType.STRING)
@@ -34,6 +44,13 @@ public class User implements UserDetails {
     public User() {
     }
 
+    /*
+    The form emails are stored and looked up in.
+     */
+    static String normaliseEmail(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return roles.stream().map(r -> new SimpleGrantedAuthority("ROLE_" + r.name())).toList();
@@ -0,0 +1,95 @@
+package account;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/*
+Detached User snapshots by normalised email, in front of UserRepository.findByEmail.
+Cached users are shared between requests and must not be modified: UserDetailsService changes a freshly loaded
+copy, and the UserChangedEvent it then publishes invalidates the entry.
+Concurrent misses for one email share a single load, which runs outside any map lock so a virtual thread waiting
+on the database doesn't pin its carrier.
+ */
+@Component
+public class UserCache {
+    private final UserRepository userRepository;
+    private final Map<String, Future<User>> users = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    UserCache(UserRepository userRepository, MeterRegistry meterRegistry, @Value("${account.user-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+        Tags tags = Tags.of("cache", "users");
+        this.hits = meterRegistry.counter("cache.gets", tags.and("result", "hit"));
+        this.misses = meterRegistry.counter("cache.gets", tags.and("result", "miss"));
+        this.evictions = meterRegistry.counter("cache.evictions", tags);
+        meterRegistry.gaugeMapSize("cache.size", tags, users);
+    }
+
+    public User findByEmail(String email) {
+        String key = key(email);
+        Future<User> cached = users.get(key);
+        if (cached != null) {
+            hits.increment();
+            return get(key, cached);
+        }
+        misses.increment();
+        if (users.size() >= maxSize) {
+            var iterator = users.keySet().iterator();
+            if (iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictions.increment();
+            }
+        }
+        // an invalidate() racing with the load removes this task, so the possibly stale result is never served again
+        FutureTask<User> load = new FutureTask<>(() -> userRepository.findByEmail(key));
+        cached = users.putIfAbsent(key, load);
+        if (cached == null) {
+            cached = load;
+            load.run();
+        }
+        return get(key, cached);
+    }
+
+    private User get(String key, Future<User> cached) {
+        try {
+            User user = cached.get();
+            if (user == null) users.remove(key, cached);
+            return user;
+        } catch (ExecutionException e) {
+            users.remove(key, cached);
+            if (e.getCause() instanceof RuntimeException runtimeException) throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void invalidate(String email) {
+        users.remove(key(email));
+    }
+
+    @EventListener
+    void onUserChanged(UserChangedEvent event) {
+        invalidate(event.email());
+    }
+
+    private static String key(String email) {
+        return User.normaliseEmail(email);
+    }
+}
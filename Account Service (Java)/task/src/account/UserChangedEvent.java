@@ -0,0 +1,15 @@
+package account;
+
+/*
+Published by UserDetailsService once it has saved a change to a user. Everything holding a copy of the user's state
+listens for it and drops that copy: UserCache, CredentialCache, TokenService and PayslipCache.
+ */
+record UserChangedEvent(long userId, String email, Change change) {
+    enum Change {
+        // roles, lock or password; tokens are revoked too, since they carry the roles they were issued with
+        UPDATED,
+        // the same password stored under a new hash, so tokens stay valid
+        REHASHED,
+        DELETED
+    }
+}
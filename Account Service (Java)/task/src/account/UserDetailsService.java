@@ -1,59 +1,93 @@
 package account;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
 @Service
-public class UserDetailsService implements org.springframework.security.core.userdetails.UserDetailsService {
+public class UserDetailsService implements org.springframework.security.core.userdetails.UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final SecurityEventService securityEventService;
+    private final UserCache userCache;
+    private final BreachedPasswords breachedPasswords;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final Timer loadTimer;
 
-    UserDetailsService(UserRepository userRepository, PasswordEncoder passwordEncoder, SecurityEventService securityEventService) {
+    UserDetailsService(UserRepository userRepository, PasswordEncoder passwordEncoder, SecurityEventService securityEventService, UserCache userCache, BreachedPasswords breachedPasswords, ApplicationEventPublisher applicationEventPublisher, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.userCache = userCache;
         this.passwordEncoder = passwordEncoder;
         this.securityEventService = securityEventService;
-    }
-
-    public List<User> findAll() {
-        return userRepository.findAll();
+        this.breachedPasswords = breachedPasswords;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.loadTimer = meterRegistry.timer("account.users.load");
     }
 
     @Override
     public User loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByEmailIgnoreCase(username);
+        User user = loadTimer.record(() -> userCache.findByEmail(username));
         if (user == null) throw new UsernameNotFoundException(username);
         return user;
     }
 
     public User createUser(String name, String lastname, String email, String password) {
-        if (userRepository.existsByEmailIgnoreCase(email)) {
+        email = User.normaliseEmail(email);
+        if (userRepository.existsByEmail(email)) {
             throw new ConflictException("User exist!");
         }
         validatePassword(password);
         Role role = Role.USER;
         if (!userRepository.existsBy()) role = Role.ADMINISTRATOR;
-        User user = userRepository.save(new User(name, lastname, email.toLowerCase(), passwordEncoder.encode(password), Set.of(role)));
+        User user;
+        try {
+            user = userRepository.save(new User(name, lastname, email, passwordEncoder.encode(password), Set.of(role)));
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent signup with the same email won the race to the unique index
+            throw new ConflictException("User exist!");
+        }
         securityEventService.createEvent(Action.CREATE_USER, user.email, "Anonymous");
         return user;
     }
 
-    public void updatePassword(User user, @NotBlank String newPassword) {
+    public void updatePassword(User principal, @NotBlank String newPassword) {
+        // the principal is a shared snapshot (cached, or built from a bearer token), so change a fresh copy instead
+        User user = userRepository.findByEmail(principal.email);
+        if (user == null) throw new NotFoundException("User not found!");
         validateNewPassword(newPassword, user.getPassword());
         user.password = passwordEncoder.encode(newPassword);
         securityEventService.createEvent(Action.CHANGE_PASSWORD, user.email);
-        userRepository.save(user);
+        user = userRepository.save(user);
+        changed(user, UserChangedEvent.Change.UPDATED);
+    }
+
+    /*
+    Called by CachingAuthenticationProvider after a login whose stored hash isn't at the current cost, with the
+    password already rehashed. The password itself is unchanged, so tokens stay valid and no event is recorded.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails principal, String encodedPassword) {
+        User user = userRepository.findByEmail(principal.getUsername());
+        if (user == null) return principal;
+        user.password = encodedPassword;
+        user = userRepository.save(user);
+        changed(user, UserChangedEvent.Change.REHASHED);
+        return user;
     }
 
     private void validateNewPassword(String newPassword, String oldPassword) {
@@ -62,26 +96,24 @@ public class UserDetailsService implements org.springframework.security.core.use
         validatePassword(newPassword);
     }
 
-    private void validatePassword(String password) {
+    void validatePassword(String password) {
         if (password.length() < 12) throw new PasswordException("Password length must be 12 chars minimum!");
-        String[] breachedPasswords = {"PasswordForJanuary", "PasswordForFebruary", "PasswordForMarch", "PasswordForApril",
-                "PasswordForMay", "PasswordForJune", "PasswordForJuly", "PasswordForAugust",
-                "PasswordForSeptember", "PasswordForOctober", "PasswordForNovember", "PasswordForDecember"};
-        if (Arrays.asList(breachedPasswords).contains(password))
+        if (breachedPasswords.contains(password))
             throw new PasswordException("The password is in the hacker's database!");
     }
 
     public void delete(@Email(regexp = ".+@acme.com") @NotNull String email) {
-        User user = userRepository.findByEmailIgnoreCase(email);
+        User user = userRepository.findByEmail(User.normaliseEmail(email));
         if (user == null) throw new NotFoundException("User not found!");
         if (user.roles.contains(Role.ADMINISTRATOR)) throw new BadRequestException("Can't remove ADMINISTRATOR role!");
 
         securityEventService.createEvent(Action.DELETE_USER, user.email);
         userRepository.delete(user);
+        changed(user, UserChangedEvent.Change.DELETED);
     }
 
     public User grantRole(String email, String roleName) {
-        User user = userRepository.findByEmailIgnoreCase(email);
+        User user = userRepository.findByEmail(User.normaliseEmail(email));
         if (user == null) throw new NotFoundException("User not found!");
         Role role;
         try {
@@ -95,11 +127,13 @@ public class UserDetailsService implements org.springframework.security.core.use
             throw new BadRequestException("The user cannot combine administrative and business roles!");
         user.roles.add(role);
         securityEventService.createEvent(Action.GRANT_ROLE, "Grant role %s to %s".formatted(role.name(), user.email));
-        return userRepository.save(user);
+        user = userRepository.save(user);
+        changed(user, UserChangedEvent.Change.UPDATED);
+        return user;
     }
 
     public User removeRole(String email, String roleName) {
-        User user = userRepository.findByEmailIgnoreCase(email);
+        User user = userRepository.findByEmail(User.normaliseEmail(email));
         if (user == null) throw new NotFoundException("User not found!");
         Role role;
         try {
@@ -112,11 +146,13 @@ public class UserDetailsService implements org.springframework.security.core.use
         if (user.roles.size() <= 1) throw new BadRequestException("The user must have at least one role!");
         user.roles.remove(role);
         securityEventService.createEvent(Action.REMOVE_ROLE, "Remove role %s from %s".formatted(role.name(), user.email));
-        return userRepository.save(user);
+        user = userRepository.save(user);
+        changed(user, UserChangedEvent.Change.UPDATED);
+        return user;
     }
 
     public User lock(String email) {
-        User user = userRepository.findByEmailIgnoreCase(email);
+        User user = userRepository.findByEmail(User.normaliseEmail(email));
         if (user == null) throw new NotFoundException("User not found!");
         if (user.roles.contains(Role.ADMINISTRATOR)) {
             throw new CantLockAdministratorException();
@@ -125,15 +161,23 @@ public class UserDetailsService implements org.springframework.security.core.use
         var authentication = SecurityContextHolder.getContext().getAuthentication();
         String subject = authentication == null ? user.email : authentication.getPrincipal().toString();
         securityEventService.createEvent(Action.LOCK_USER, "Lock user %s".formatted(user.email), subject);
-        return userRepository.save(user);
+        user = userRepository.save(user);
+        changed(user, UserChangedEvent.Change.UPDATED);
+        return user;
     }
 
     public User unlock(String email) {
-        User user = userRepository.findByEmailIgnoreCase(email);
+        User user = userRepository.findByEmail(User.normaliseEmail(email));
         if (user == null) throw new NotFoundException("User not found!");
         user.locked = false;
         securityEventService.createEvent(Action.UNLOCK_USER, "Unlock user %s".formatted(user.email));
-        return userRepository.save(user);
+        user = userRepository.save(user);
+        changed(user, UserChangedEvent.Change.UPDATED);
+        return user;
+    }
+
+    private void changed(User user, UserChangedEvent.Change change) {
+        applicationEventPublisher.publishEvent(new UserChangedEvent(user.id, user.email, change));
     }
 
     @ResponseStatus(HttpStatus.BAD_REQUEST)
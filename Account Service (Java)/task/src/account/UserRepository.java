@@ -1,10 +1,79 @@
 package account;
 
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
-    User findByEmailIgnoreCase(String email);
+    /*
+    Emails are stored normalised (see User.normaliseEmail) under a unique index, so lookups are plain equality.
+     */
+    User findByEmail(String email);
+
+    @Query("select u.email as email, u.id as id from User u where u.email in :emails")
+    List<EmailAndId> findIdsByEmailIn(Collection<String> emails);
+
+    boolean existsByEmail(String email);
+
+    @Query("select u.tokenVersion from User u where u.email = :email")
+    Integer findTokenVersionByEmail(String email);
+
+    @Query("select u.tokenVersion as tokenVersion, u.locked as locked from User u where u.email = :email")
+    TokenState findTokenStateByEmail(String email);
 
-    boolean existsByEmailIgnoreCase(String email);
+    @Transactional
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.email = :email")
+    void incrementTokenVersion(String email);
+
+    /*
+    The admin listing reads these projections instead of entities, which would load their eager roles one query per user.
+     */
+    @Query("select u.id as id, u.name as name, u.lastname as lastname, u.email as email from User u")
+    Page<UserSummary> findSummaries(Pageable pageable);
+
+    @Query("select u.id as id, u.name as name, u.lastname as lastname, u.email as email from User u")
+    List<UserSummary> findAllSummaries(Sort sort);
+
+    @Query("select u.id as id, r as role from User u join u.roles r where u.id in :ids")
+    List<UserIdAndRole> findRolesByIdIn(Collection<Long> ids);
+
+    @Query("select u.id as id, r as role from User u join u.roles r")
+    List<UserIdAndRole> findAllRoles();
     boolean existsBy();
+
+    interface UserSummary {
+        long getId();
+
+        String getName();
+
+        String getLastname();
+
+        String getEmail();
+    }
+
+    interface UserIdAndRole {
+        long getId();
+
+        Role getRole();
+    }
+
+    interface TokenState {
+        int getTokenVersion();
+
+        boolean isLocked();
+    }
+
+    interface EmailAndId {
+        String getEmail();
+
+        long getId();
+    }
 }
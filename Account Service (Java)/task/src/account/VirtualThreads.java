@@ -0,0 +1,41 @@
+package account;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+
+/*
+Virtual threads through reflection, so the service still compiles and runs on Java 17 and only needs Java 21
+when account.virtual-threads.enabled is set.
+ */
+final class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    static void requireSupported() {
+        if (Runtime.version().feature() < 21) throw unsupported(null);
+    }
+
+    static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    static Thread newThread(String name, Runnable task) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class).invoke(builder, name);
+            Method unstarted = builderType.getMethod("unstarted", Runnable.class);
+            return (Thread) unstarted.invoke(builder, task);
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    private static IllegalStateException unsupported(Exception cause) {
+        return new IllegalStateException("account.virtual-threads.enabled needs Java 21 or later, running on " + Runtime.version(), cause);
+    }
+}
@@ -0,0 +1,36 @@
+package account;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+/*
+With account.virtual-threads.enabled=true Tomcat runs every request on its own virtual thread instead of the
+bounded platform pool, so requests blocked on H2/JPA no longer exhaust server.tomcat.threads.max; the Hikari pool,
+sized on its own in the prod profile, becomes the limit. The request-scoped HttpServletRequest proxy stays correct
+because a request never leaves its thread: RequestContextHolder is a thread local of the virtual thread, and
+SecurityEventService reads the URI before handing the event to the journal's writer thread.
+@Async methods, event listeners included, also run on a virtual thread each instead of Boot's bounded task pool.
+The current listeners stay synchronous: they read the request, or must finish before the response (a lockout).
+ */
+@Configuration
+@ConditionalOnProperty(name = "account.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        VirtualThreads.requireSupported();
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor());
+    }
+
+    // replaces Boot's applicationTaskExecutor, under both names it registers
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        VirtualThreads.requireSupported();
+        return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor());
+    }
+}
@@ -0,0 +1,5 @@
+-- Re-applied whenever account.id.allocation-size changes, keeping INCREMENT BY equal to the generator's block size.
+-- Safe on a live sequence: the next block starts right after the last value handed out.
+alter sequence "user_seq" increment by ${id_allocation_size};
+alter sequence "payroll_seq" increment by ${id_allocation_size};
+alter sequence "security_event_seq" increment by ${id_allocation_size};
@@ -0,0 +1,7 @@
+-- Schema as previously generated by Hibernate (spring.jpa.generate-ddl). Existing databases are baselined at this version.
+create table "security_event" ("date" date, "id" bigint generated by default as identity, "action" varchar(255) check ("action" in ('CREATE_USER','CHANGE_PASSWORD','ACCESS_DENIED','LOGIN_FAILED','GRANT_ROLE','REMOVE_ROLE','LOCK_USER','UNLOCK_USER','DELETE_USER','BRUTE_FORCE')), "object" varchar(255), "path" varchar(255), "subject" varchar(255), primary key ("id"));
+create table "user" ("locked" boolean not null, "id" bigint generated by default as identity, "email" varchar(255), "lastname" varchar(255), "name" varchar(255), "password" varchar(255), primary key ("id"));
+create table "user_roles" ("user_id" bigint not null, "roles" varchar(255) check ("roles" in ('ADMINISTRATOR','USER','ACCOUNTANT','AUDITOR')));
+create table "payroll" ("period" date, "id" bigint generated by default as identity, "salary" bigint not null, "user_id" bigint not null, primary key ("id"), constraint "UK7kumfja976kfiy7xroe9515d9" unique ("user_id", "period"));
+alter table "user_roles" add constraint "FK40cm955hgg5oxf1oax8mqw0c4" foreign key ("user_id") references "user";
+alter table "payroll" add constraint "FKeoe36isj2nym1ajctwrbkfd70" foreign key ("user_id") references "user";
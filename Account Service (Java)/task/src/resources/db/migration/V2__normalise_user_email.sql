@@ -0,0 +1,5 @@
+-- Emails are the normalised lookup key (User.normaliseEmail). Rows that differ from it are normalised here; if that
+-- makes two accounts collide the constraint fails and the migration stops for manual cleanup.
+-- Databases last started with spring.jpa.generate-ddl already have the constraint from the entity mapping.
+update "user" set "email" = lower("email") where "email" <> lower("email");
+alter table "user" add constraint if not exists "user_email_uk" unique ("email");
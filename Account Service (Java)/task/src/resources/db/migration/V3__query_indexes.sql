@@ -0,0 +1,12 @@
+-- Indexes for the repository queries. Databases last started with spring.jpa.generate-ddl may have some of them already.
+-- user_roles needs none of its own: H2 indexes foreign key columns when the constraint is created.
+
+-- SecurityEventSearch filters on one column and pages by id
+create index if not exists "security_event_action_idx" on "security_event" ("action", "id");
+create index if not exists "security_event_subject_idx" on "security_event" ("subject", "id");
+create index if not exists "security_event_object_idx" on "security_event" ("object", "id");
+create index if not exists "security_event_date_idx" on "security_event" ("date", "id");
+
+-- PayrollRepository.findByUserOrderByPeriodDesc and the paged period range, newest first;
+-- the (user_id, period) unique constraint serves the equality and batch duplicate lookups
+create index if not exists "payroll_user_period_desc_idx" on "payroll" ("user_id", "period" desc);
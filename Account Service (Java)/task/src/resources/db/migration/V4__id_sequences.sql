@@ -0,0 +1,14 @@
+-- Ids come from pooled sequences (PooledSequenceGenerator) instead of identity columns, so Hibernate can batch inserts.
+-- The pooled optimizer takes a sequence value as the top of a block of ${id_allocation_size} ids, so each sequence
+-- restarts one full block past the current max id.
+create sequence "user_seq" increment by ${id_allocation_size};
+create sequence "payroll_seq" increment by ${id_allocation_size};
+create sequence "security_event_seq" increment by ${id_allocation_size};
+alter sequence "user_seq" restart with (select coalesce(max("id"), 0) + ${id_allocation_size} from "user");
+alter sequence "payroll_seq" restart with (select coalesce(max("id"), 0) + ${id_allocation_size} from "payroll");
+alter sequence "security_event_seq" restart with (select coalesce(max("id"), 0) + ${id_allocation_size} from "security_event");
+
+-- every insert must take its id from the generator now
+alter table "user" alter column "id" drop identity;
+alter table "payroll" alter column "id" drop identity;
+alter table "security_event" alter column "id" drop identity;
@@ -0,0 +1,3 @@
+-- Bumped to revoke a user's bearer tokens (TokenService); tokens carry the version they were issued at, so every
+-- instance sharing the token secret sees the revocation.
+alter table "user" add column "token_version" integer default 0 not null;
@@ -0,0 +1,116 @@
+package account;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.YearMonth;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:accountant-controller",
+        "server.ssl.enabled=false",
+        "account.payroll.batch-size=2",
+})
+@AutoConfigureMockMvc
+class AccountantControllerTest {
+    private static final String[] UPLOADS = {"/api/acct/payments", "/api/acct/payments?stream"};
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    PayrollRepository payrollRepository;
+    private User accountant;
+    private User john;
+
+    @BeforeEach
+    void setUp() {
+        payrollRepository.deleteAll();
+        accountant = user("accountant@acme.com", Role.ACCOUNTANT);
+        john = user("john@acme.com", Role.USER);
+        user("jane@acme.com", Role.USER);
+    }
+
+    @Test
+    void addsPayrollsAcrossBatches() throws Exception {
+        for (String upload : UPLOADS) {
+            payrollRepository.deleteAll();
+
+            mockMvc.perform(upload(upload, payroll("john@acme.com", "01-2021"), payroll("JANE@acme.com", "01-2021"),
+                            payroll("john@acme.com", "02-2021"), payroll("jane@acme.com", "02-2021"), payroll("john@acme.com", "03-2021")))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("Added successfully!"));
+
+            assertThat(payrollRepository.count()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    void rejectsDuplicatesWithinTheUpload() throws Exception {
+        for (String upload : UPLOADS) {
+            assertRejected(upload(upload, payroll("john@acme.com", "01-2021"), payroll("jane@acme.com", "01-2021"),
+                    payroll("JOHN@acme.com", "01-2021")));
+        }
+    }
+
+    @Test
+    void rejectsPayrollsThatAreAlreadyStored() throws Exception {
+        payrollRepository.save(new Payroll(john, YearMonth.of(2021, 2), 100_00));
+
+        for (String upload : UPLOADS) {
+            assertRejected(upload(upload, payroll("jane@acme.com", "01-2021"), payroll("jane@acme.com", "02-2021"),
+                    payroll("john@acme.com", "02-2021")));
+        }
+        assertThat(payrollRepository.count()).isEqualTo(1);
+    }
+
+    // the status and message the row-by-row upload gave, when saving a payroll without a user failed its not-null check
+    @Test
+    void rejectsUnknownEmployeesLikeDuplicates() throws Exception {
+        for (String upload : UPLOADS) {
+            assertRejected(upload(upload, payroll("john@acme.com", "01-2021"), payroll("jane@acme.com", "01-2021"),
+                    payroll("nobody@acme.com", "01-2021")));
+        }
+    }
+
+    private void assertRejected(RequestBuilder upload) throws Exception {
+        MvcResult result = mockMvc.perform(upload).andExpect(status().isBadRequest()).andReturn();
+
+        assertThat(result.getResolvedException())
+                .isInstanceOf(AccountantController.DuplicatePayrollException.class)
+                .hasMessage("Payroll already exists!");
+        // nothing from the failed upload is left behind, even from earlier batches
+        assertThat(payrollRepository.findByUserOrderByPeriodDesc(userRepository.findByEmail("jane@acme.com"))).isEmpty();
+    }
+
+    private RequestBuilder upload(String path, String... payrolls) {
+        return post(path).contentType(MediaType.APPLICATION_JSON)
+                .content("[" + String.join(",", payrolls) + "]")
+                .with(SecurityMockMvcRequestPostProcessors.authentication(
+                        UsernamePasswordAuthenticationToken.authenticated(accountant, null, accountant.getAuthorities())));
+    }
+
+    private static String payroll(String employee, String period) {
+        return "{\"employee\":\"%s\",\"period\":\"%s\",\"salary\":123456}".formatted(employee, period);
+    }
+
+    private User user(String email, Role role) {
+        User user = userRepository.findByEmail(email);
+        return user != null ? user : userRepository.save(new User("John", "Doe", email, "", Set.of(role)));
+    }
+}
@@ -0,0 +1,49 @@
+package account;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.Set;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:actuator-security",
+        "server.ssl.enabled=false",
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability // the Prometheus endpoint is off in tests otherwise
+class ActuatorSecurityTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    void metricsNeedAnAdministratorOrAuditor() throws Exception {
+        for (String path : new String[]{"/actuator/prometheus", "/actuator/metrics", "/actuator/metrics/jvm.threads.live"}) {
+            mockMvc.perform(get(path)).andExpect(status().isUnauthorized());
+            mockMvc.perform(get(path).with(as(Role.USER))).andExpect(status().isForbidden());
+            mockMvc.perform(get(path).with(as(Role.ACCOUNTANT))).andExpect(status().isForbidden());
+            mockMvc.perform(get(path).with(as(Role.AUDITOR))).andExpect(status().isOk());
+            mockMvc.perform(get(path).with(as(Role.ADMINISTRATOR))).andExpect(status().isOk());
+        }
+    }
+
+    // the access-denied event is logged against the stored user
+    private RequestPostProcessor as(Role role) {
+        String email = User.normaliseEmail(role.name()) + "@acme.com";
+        User user = userRepository.findByEmail(email);
+        if (user == null) user = userRepository.save(new User("Jane", "Doe", email, "", Set.of(role)));
+        return SecurityMockMvcRequestPostProcessors.authentication(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+    }
+}
@@ -0,0 +1,147 @@
+package account;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BreachedPasswordsTest {
+    private static final int BREACHED = 10_000;
+
+    @TempDir
+    Path dir;
+    private Path filter;
+    private Path hashes;
+
+    @BeforeEach
+    void buildIndex() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < BREACHED; i++) lines.add(sha1Hex(breached(i)) + ":" + (i + 1));
+        lines.add(sha1Hex(breached(0)) + ":1"); // duplicates are dropped
+        lines.sort(null);
+        Path list = Files.write(dir.resolve("list.txt"), lines);
+        filter = dir.resolve("filter");
+        hashes = dir.resolve("hashes");
+
+        assertThat(BreachedPasswordIndexBuilder.build(list, filter, hashes, 10)).isEqualTo(BREACHED);
+        assertThat(Files.size(hashes)).isEqualTo((long) BREACHED * BreachedPasswords.HASH_LENGTH);
+        assertThat(Files.size(filter)).isEqualTo(BreachedPasswords.FILTER_HEADER + (BREACHED * 10L + 7) / 8);
+    }
+
+    @Test
+    void findsBreachedPasswords() {
+        var passwords = new BreachedPasswords(filter.toString(), hashes.toString());
+
+        assertThat(IntStream.range(0, BREACHED).allMatch(i -> passwords.contains(breached(i)))).isTrue();
+        assertThat(IntStream.range(0, BREACHED).noneMatch(i -> passwords.contains(unknown(i)))).isTrue();
+        assertThat(passwords.contains("PasswordForMarch")).isTrue();
+    }
+
+    @Test
+    void filterAloneHasFewFalsePositives() {
+        var passwords = new BreachedPasswords(filter.toString(), "");
+
+        assertThat(IntStream.range(0, BREACHED).allMatch(i -> passwords.contains(breached(i)))).isTrue();
+        // 10 bits per password and 7 probes give about 1%
+        assertThat(IntStream.range(0, BREACHED).filter(i -> passwords.contains(unknown(i))).count()).isLessThan(BREACHED / 50);
+    }
+
+    @Test
+    void hashesAloneAreExact() {
+        var passwords = new BreachedPasswords("", hashes.toString());
+
+        assertThat(IntStream.range(0, BREACHED).allMatch(i -> passwords.contains(breached(i)))).isTrue();
+        assertThat(IntStream.range(0, BREACHED).noneMatch(i -> passwords.contains(unknown(i)))).isTrue();
+    }
+
+    @Test
+    void filterBuiltAcrossSlicesIsTheSame() throws Exception {
+        // a real corpus fills more than one 1 GiB slice; 64-byte slices cross the boundaries in this small one
+        Path sliced = dir.resolve("sliced-filter");
+        BreachedPasswordIndexBuilder.build(dir.resolve("list.txt"), sliced, dir.resolve("sliced-hashes"), 10, 6);
+
+        assertThat(Files.mismatch(sliced, filter)).isEqualTo(-1);
+    }
+
+    @Test
+    void onlyBuiltInListWithoutIndex() {
+        var passwords = new BreachedPasswords("", "");
+
+        assertThat(passwords.contains("PasswordForMarch")).isTrue();
+        assertThat(passwords.contains(breached(0))).isFalse();
+    }
+
+    @Test
+    void rejectsFileWithoutFilterHeader() {
+        assertThatThrownBy(() -> new BreachedPasswords(hashes.toString(), ""))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("is not a breached password filter");
+    }
+
+    @Test
+    void rejectsTruncatedFilter() throws IOException {
+        truncate(filter, Files.size(filter) - 1);
+
+        assertThatThrownBy(() -> new BreachedPasswords(filter.toString(), ""))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("is damaged");
+    }
+
+    @Test
+    void rejectsTruncatedHashes() throws IOException {
+        truncate(hashes, Files.size(hashes) - 1);
+
+        assertThatThrownBy(() -> new BreachedPasswords("", hashes.toString()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("is not a list of SHA-1 hashes");
+    }
+
+    @Test
+    void builderRejectsUnsortedOrMalformedLists() throws IOException {
+        String a = sha1Hex("a");
+        String b = sha1Hex("b");
+        Path unsorted = Files.write(dir.resolve("unsorted.txt"), a.compareTo(b) > 0 ? List.of(a, b) : List.of(b, a));
+        Path malformed = Files.write(dir.resolve("malformed.txt"), List.of("not a hash:3"));
+
+        assertThatThrownBy(() -> BreachedPasswordIndexBuilder.build(unsorted, dir.resolve("f"), dir.resolve("h"), 10))
+                .hasMessageContaining("out of order");
+        assertThatThrownBy(() -> BreachedPasswordIndexBuilder.build(malformed, dir.resolve("f"), dir.resolve("h"), 10))
+                .hasMessageContaining("is not a SHA-1");
+    }
+
+    private static String breached(int i) {
+        return "breached-" + i;
+    }
+
+    private static String unknown(int i) {
+        return "unknown-" + i;
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static String sha1Hex(String password) {
+        try {
+            return HexFormat.of().withUpperCase().formatHex(MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
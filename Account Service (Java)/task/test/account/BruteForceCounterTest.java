@@ -0,0 +1,67 @@
+package account;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BruteForceCounterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void blocksAtThreshold() {
+        var counter = counter(3);
+        counter.increment("John@acme.com");
+        counter.increment("john@acme.com");
+        assertThat(counter.isBlocked("john@acme.com")).isFalse();
+
+        counter.increment("JOHN@acme.com");
+        assertThat(counter.isBlocked("john@acme.com")).isTrue();
+
+        counter.reset("john@acme.com");
+        assertThat(counter.isBlocked("john@acme.com")).isFalse();
+    }
+
+    @Test
+    void forgetsFailuresOutsideTheWindow() {
+        var counter = counter(2);
+        counter.increment("john@acme.com");
+        now.addAndGet(Duration.ofHours(1).toNanos());
+        counter.increment("john@acme.com");
+
+        assertThat(counter.isBlocked("john@acme.com")).isFalse();
+    }
+
+    @Test
+    void countsAccountsWhateverElseIsSprayed() {
+        var counter = counter(2);
+        counter.increment("victim@acme.com");
+        for (int i = 0; i < 100_000; i++) counter.increment("spray" + i + "@acme.com");
+        counter.increment("victim@acme.com");
+
+        assertThat(counter.isBlocked("victim@acme.com")).isTrue();
+        assertThat(meterRegistry.get("account.brute.force.unknown").counter().count()).isEqualTo(100_000);
+        assertThat(meterRegistry.get("account.brute.force.tracked").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void sweepsExpiredCounters() {
+        var counter = counter(2);
+        counter.increment("old@acme.com");
+        now.addAndGet(Duration.ofHours(1).toNanos());
+        counter.increment("john@acme.com");
+        counter.increment("john@acme.com");
+
+        assertThat(counter.isBlocked("john@acme.com")).isTrue();
+        assertThat(meterRegistry.get("account.brute.force.evictions").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("account.brute.force.tracked").gauge().value()).isEqualTo(1);
+    }
+
+    private BruteForceCounter counter(int threshold) {
+        return new BruteForceCounter(meterRegistry, email -> !email.startsWith("spray"), threshold, Duration.ofHours(1), now::get);
+    }
+}
@@ -0,0 +1,34 @@
+package account;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedBCryptPasswordEncoderTest {
+    @Test
+    void upgradesOnlyLowerCosts() {
+        var encoder = new CalibratedBCryptPasswordEncoder(6);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret"))).isTrue();
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("secret"))).isFalse();
+        assertThat(encoder.upgradeEncoding(null)).isFalse();
+    }
+
+    @Test
+    void verifiesHashesAtOtherCosts() {
+        var encoder = new CalibratedBCryptPasswordEncoder(6);
+
+        assertThat(encoder.matches("secret", new BCryptPasswordEncoder(5).encode("secret"))).isTrue();
+        assertThat(encoder.matches("secret", new BCryptPasswordEncoder(7).encode("secret"))).isTrue();
+    }
+
+    @Test
+    void calibratesNoLowerThanMinimum() {
+        assertThat(CalibratedBCryptPasswordEncoder.calibrate(Duration.ZERO, 13)).isEqualTo(13);
+        assertThat(CalibratedBCryptPasswordEncoder.calibrate(Duration.ofMillis(1), 4)).isGreaterThanOrEqualTo(8);
+    }
+}
@@ -0,0 +1,67 @@
+package account;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CredentialCacheTest {
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void remembersVerifiedCredentials() throws Exception {
+        var cache = new CredentialCache(Duration.ofMinutes(5), 10, now::get);
+        cache.verified("john@acme.com", "secret", "{bcrypt}hash");
+
+        assertThat(cache.isVerified("john@acme.com", "secret", "{bcrypt}hash")).isTrue();
+        assertThat(cache.isVerified("john@acme.com", "wrong", "{bcrypt}hash")).isFalse();
+        assertThat(cache.isVerified("john@acme.com", "secret", "{bcrypt}changed")).isFalse();
+
+        cache.invalidate("john@acme.com");
+        assertThat(cache.isVerified("john@acme.com", "secret", "{bcrypt}hash")).isFalse();
+    }
+
+    @Test
+    void forgetsExpiredCredentials() throws Exception {
+        var cache = new CredentialCache(Duration.ofMinutes(5), 10, now::get);
+        cache.verified("john@acme.com", "secret", "{bcrypt}hash");
+        now.addAndGet(Duration.ofMinutes(5).toNanos() - 1);
+        assertThat(cache.isVerified("john@acme.com", "secret", "{bcrypt}hash")).isTrue();
+        now.addAndGet(2);
+
+        assertThat(cache.isVerified("john@acme.com", "secret", "{bcrypt}hash")).isFalse();
+    }
+
+    @Test
+    void keepsLiveEntriesWhenFull() throws Exception {
+        var cache = new CredentialCache(Duration.ofMinutes(5), 2, now::get);
+        cache.verified("a@acme.com", "secret", "hash");
+        cache.verified("b@acme.com", "secret", "hash");
+        cache.verified("c@acme.com", "secret", "hash");
+
+        assertThat(cache.isVerified("a@acme.com", "secret", "hash")).isTrue();
+        assertThat(cache.isVerified("b@acme.com", "secret", "hash")).isTrue();
+        assertThat(cache.isVerified("c@acme.com", "secret", "hash")).isFalse();
+    }
+
+    @Test
+    void sweepsExpiredEntriesToMakeRoom() throws Exception {
+        var cache = new CredentialCache(Duration.ofMinutes(5), 2, now::get);
+        cache.verified("a@acme.com", "secret", "hash");
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        cache.verified("b@acme.com", "secret", "hash");
+        now.addAndGet(Duration.ofMinutes(4).toNanos() + 1);
+        cache.verified("c@acme.com", "secret", "hash");
+        // one sweep per interval, however many callers find the cache full
+        cache.verified("d@acme.com", "secret", "hash");
+        now.addAndGet(PeriodicSweep.DEFAULT_INTERVAL.toNanos());
+        cache.verified("e@acme.com", "secret", "hash");
+
+        assertThat(cache.isVerified("b@acme.com", "secret", "hash")).isTrue();
+        assertThat(cache.isVerified("c@acme.com", "secret", "hash")).isTrue();
+        assertThat(cache.isVerified("d@acme.com", "secret", "hash")).isFalse();
+        assertThat(cache.isVerified("e@acme.com", "secret", "hash")).isFalse();
+    }
+}
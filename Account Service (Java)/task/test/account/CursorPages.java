@@ -0,0 +1,59 @@
+package account;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+Reads and follows the keyset pages of the list endpoints (see Paging).
+ */
+final class CursorPages {
+    private static final int MAX_PAGES = 100;
+
+    private CursorPages() {
+    }
+
+    static <T> Page<T> read(MvcResult result, ObjectMapper objectMapper, Function<JsonNode, T> item) throws Exception {
+        List<T> items = new ArrayList<>();
+        for (JsonNode node : objectMapper.readTree(result.getResponse().getContentAsString())) items.add(item.apply(node));
+        return new Page<>(items, result.getResponse().getHeader(Paging.NEXT_CURSOR_HEADER));
+    }
+
+    /*
+    Every page from the first to the one without a cursor, passing each cursor as `cursorParam`.
+     */
+    static <T> List<Page<T>> follow(String query, String cursorParam, Fetch<T> fetch) throws Exception {
+        List<Page<T>> pages = new ArrayList<>();
+        Page<T> page = fetch.page(query);
+        pages.add(page);
+        while (page.next() != null) {
+            assertThat(pages).as("pages before the cursor ends").hasSizeLessThan(MAX_PAGES);
+            page = fetch.page(query + "&" + cursorParam + "=" + page.next());
+            pages.add(page);
+        }
+        return pages;
+    }
+
+    static void assertFullLastPageIsFollowedByAnEmptyOne(List<? extends Page<?>> pages, int limit) {
+        assertThat(pages).hasSizeGreaterThan(1);
+        Page<?> full = pages.get(pages.size() - 2);
+        Page<?> empty = pages.get(pages.size() - 1);
+        assertThat(full.items()).hasSize(limit);
+        assertThat(full.next()).isNotNull();
+        assertThat(empty.items()).isEmpty();
+        assertThat(empty.next()).isNull();
+    }
+
+    record Page<T>(List<T> items, String next) {
+    }
+
+    interface Fetch<T> {
+        Page<T> page(String query) throws Exception;
+    }
+}
@@ -0,0 +1,139 @@
+package account;
+
+import account.CursorPages.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:employee-controller",
+        "server.ssl.enabled=false",
+        "account.payslips.max-page-size=3",
+})
+@AutoConfigureMockMvc
+class EmployeeControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    PayrollRepository payrollRepository;
+    @Autowired
+    PayrollService payrollService;
+    @Autowired
+    PayslipCache payslipCache;
+    private User john;
+
+    @BeforeEach
+    void setUp() {
+        payrollRepository.deleteAll();
+        john = user("john@acme.com");
+        User jane = user("jane@acme.com");
+        // from 10-2020 to 02-2021, with another employee's payslips in between
+        for (YearMonth period = YearMonth.of(2020, 10); !period.isAfter(YearMonth.of(2021, 2)); period = period.plusMonths(1)) {
+            payrollRepository.save(new Payroll(john, period, 100_00));
+            payrollRepository.save(new Payroll(jane, period, 200_00));
+        }
+    }
+
+    @Test
+    void pagesNewestFirst() throws Exception {
+        List<Page<String>> pages = CursorPages.follow("limit=2", "before", this::page);
+
+        assertThat(pages).extracting(Page::items).containsExactly(
+                List.of("February-2021", "January-2021"), List.of("December-2020", "November-2020"), List.of("October-2020"));
+        assertThat(pages).extracting(Page::next).containsExactly("01-2021", "11-2020", null);
+    }
+
+    @Test
+    void fullLastPageIsFollowedByAnEmptyOne() throws Exception {
+        List<Page<String>> pages = CursorPages.follow("from=11-2020&to=01-2021&limit=3", "before", this::page);
+
+        CursorPages.assertFullLastPageIsFollowedByAnEmptyOne(pages, 3);
+        assertThat(pages.get(0).items()).containsExactly("January-2021", "December-2020", "November-2020");
+    }
+
+    @Test
+    void cursorStaysWithinTheRange() throws Exception {
+        List<Page<String>> pages = CursorPages.follow("from=11-2020&to=01-2021&limit=2", "before", this::page);
+
+        assertThat(pages).extracting(Page::items).containsExactly(List.of("January-2021", "December-2020"), List.of("November-2020"));
+        // a cursor past the end of the range leaves the range's upper bound in place
+        assertThat(page("to=12-2020&before=06-2021").items()).containsExactly("December-2020", "November-2020", "October-2020");
+        // open on both sides, only the cursor bounds the page
+        assertThat(page("before=12-2020").items()).containsExactly("November-2020", "October-2020");
+    }
+
+    @Test
+    void limitsPageSize() throws Exception {
+        assertThat(page("limit=100").items()).hasSize(3);
+        assertThat(page("limit=0").items()).hasSize(1);
+        assertThat(page("from=01-2020").items()).hasSize(3);
+        // without paging parameters it is the whole history
+        assertThat(page("").items()).hasSize(5);
+    }
+
+    @Test
+    void answersNotModifiedUntilThePayslipsChange() throws Exception {
+        payslipCache.evictUser(john.id);
+        String payslip = etag(payslips("period=01-2021", null).andExpect(status().isOk()));
+        String history = etag(payslips("", null).andExpect(status().isOk()));
+
+        payslips("period=01-2021", payslip).andExpect(status().isNotModified());
+        payslips("", history).andExpect(status().isNotModified());
+
+        payrollService.updatePayroll("john@acme.com", YearMonth.of(2021, 1), 300_00);
+
+        assertThat(etag(payslips("period=01-2021", payslip).andExpect(status().isOk()))).isNotEqualTo(payslip);
+        assertThat(etag(payslips("", history).andExpect(status().isOk()))).isNotEqualTo(history);
+        // another period's payslip didn't change
+        String february = etag(payslips("period=02-2021", null));
+        payrollService.updatePayroll("john@acme.com", YearMonth.of(2021, 1), 400_00);
+        payslips("period=02-2021", february).andExpect(status().isNotModified());
+    }
+
+    private User user(String email) {
+        User user = userRepository.findByEmail(email);
+        return user != null ? user : userRepository.save(new User("John", "Doe", email, "", Set.of(Role.USER)));
+    }
+
+    private ResultActions payslips(String query, String ifNoneMatch) throws Exception {
+        var request = get("/api/empl/payment?" + query)
+                .with(SecurityMockMvcRequestPostProcessors.authentication(
+                        UsernamePasswordAuthenticationToken.authenticated(john, null, john.getAuthorities())));
+        if (ifNoneMatch != null) request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return mockMvc.perform(request);
+    }
+
+    private static String etag(ResultActions response) {
+        String etag = response.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        return etag;
+    }
+
+    private Page<String> page(String query) throws Exception {
+        MvcResult result = payslips(query, null)
+                .andExpect(status().isOk())
+                .andReturn();
+        return CursorPages.read(result, objectMapper, payslip -> payslip.get("period").asText());
+    }
+}
@@ -0,0 +1,164 @@
+package account;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:gzip-requests",
+        "server.ssl.enabled=false",
+        "account.gzip-requests.max-inflated-size=1KB",
+})
+@AutoConfigureMockMvc
+class GzipRequestFilterTest {
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    UserRepository userRepository;
+
+    @Test
+    void inflatesUploads() throws Exception {
+        userRepository.save(new User("John", "Doe", "john@acme.com", "", Set.of(Role.USER)));
+        String payroll = "[{\"employee\":\"john@acme.com\",\"period\":\"01-2021\",\"salary\":123456}]";
+
+        mockMvc.perform(gzipped(post("/api/acct/payments"), payroll))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("Added successfully!"));
+    }
+
+    @Test
+    void refusesBodiesInflatingPastTheLimit() throws Exception {
+        String payroll = "[" + " ".repeat(2048) + "]";
+
+        mockMvc.perform(gzipped(post("/api/acct/payments"), payroll)).andExpect(status().isPayloadTooLarge());
+        mockMvc.perform(gzipped(post("/api/acct/payments?stream"), payroll)).andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void inflatesForReadListeners() throws Exception {
+        var compressed = new ListenedInputStream(gzip("[]"));
+        var request = new MockHttpServletRequest("POST", "/api/acct/payments") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return compressed;
+            }
+        };
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        var inflated = new ByteArrayOutputStream();
+        var allDataRead = new boolean[1];
+
+        new GzipRequestFilter(DataSize.ofKilobytes(1)).doFilter(request, new MockHttpServletResponse(), new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest inflatingRequest, ServletResponse response) throws IOException {
+                ServletInputStream in = inflatingRequest.getInputStream();
+                in.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        while (in.isReady() && !in.isFinished()) {
+                            int b = in.read();
+                            if (b >= 0) inflated.write(b);
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        allDataRead[0] = true;
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+                });
+                assertThat(in.isReady()).isFalse();
+                compressed.arrive();
+            }
+        });
+
+        assertThat(inflated.toString(StandardCharsets.UTF_8)).isEqualTo("[]");
+        assertThat(allDataRead[0]).isTrue();
+    }
+
+    private MockHttpServletRequestBuilder gzipped(MockHttpServletRequestBuilder request, String body) throws IOException {
+        var user = userRepository.findByEmail("accountant@acme.com");
+        if (user == null) user = userRepository.save(new User("Ann", "Doe", "accountant@acme.com", "", Set.of(Role.ACCOUNTANT)));
+        return request.contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .content(gzip(body))
+                .with(SecurityMockMvcRequestPostProcessors.authentication(
+                        UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities())));
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    /*
+    A non-blocking request body that arrives in one piece when told to.
+     */
+    private static final class ListenedInputStream extends ServletInputStream {
+        private final ByteArrayInputStream body;
+        private ReadListener listener;
+        private boolean arrived;
+
+        ListenedInputStream(byte[] body) {
+            this.body = new ByteArrayInputStream(body);
+        }
+
+        void arrive() throws IOException {
+            arrived = true;
+            listener.onDataAvailable();
+            listener.onAllDataRead();
+        }
+
+        @Override
+        public int read() {
+            return body.read();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return arrived && body.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return arrived && body.available() > 0;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            this.listener = readListener;
+        }
+    }
+}
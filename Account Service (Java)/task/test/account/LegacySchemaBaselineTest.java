@@ -0,0 +1,117 @@
+package account;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LegacySchemaBaselineTest {
+    private DataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void createDatabase() {
+        var h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource = h2;
+        jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void baselinesDatabaseCreatedByHibernate() throws Exception {
+        createLegacySchema();
+
+        Flyway flyway = flyway();
+        new LegacySchemaBaseline(true).migrate(flyway);
+
+        assertMigratedFromBaseline(flyway);
+        // a flag left on does nothing once the history has the baseline
+        new LegacySchemaBaseline(true).migrate(flyway);
+        assertMigratedFromBaseline(flyway);
+    }
+
+    @Test
+    void baselinesDatabaseWithEmptySchemaHistory() throws Exception {
+        // an application with Flyway but no migrations yet: Flyway creates its history table before Hibernate
+        // generates the schema, and baseline-on-migrate is skipped from then on
+        Flyway.configure().dataSource(dataSource).locations("classpath:no/migrations").load().migrate();
+        createLegacySchema();
+        assertThat(jdbc.queryForObject("select count(*) from \"flyway_schema_history\" where \"version\" is not null", Integer.class)).isZero();
+
+        Flyway flyway = flyway();
+        new LegacySchemaBaseline(true).migrate(flyway);
+
+        assertMigratedFromBaseline(flyway);
+    }
+
+    @Test
+    void refusesDatabaseCreatedByHibernateWithoutTheFlag() throws Exception {
+        createLegacySchema();
+
+        Flyway flyway = flyway();
+        assertThatThrownBy(() -> new LegacySchemaBaseline(false).migrate(flyway))
+                .isInstanceOf(FlywayException.class)
+                .hasMessageContaining("account.flyway.baseline-legacy-schema=true");
+
+        assertThat(flyway.info().applied()).isEmpty();
+        assertThat(jdbc.queryForObject("select count(*) from \"payroll\"", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void migratesEmptyDatabaseFromV1() {
+        Flyway flyway = flyway();
+        new LegacySchemaBaseline(false).migrate(flyway);
+
+        assertThat(flyway.info().applied()[0].getVersion().getVersion()).isEqualTo("1");
+        assertThat(flyway.info().applied()[0].getType().name()).isEqualTo("SQL");
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("5");
+    }
+
+    @Test
+    void leavesMigratedDatabaseAlone() {
+        new LegacySchemaBaseline(false).migrate(flyway());
+        Flyway flyway = flyway();
+        new LegacySchemaBaseline(false).migrate(flyway);
+
+        assertThat(flyway.info().pending()).isEmpty();
+        assertThat(flyway.info().applied()[0].getType().name()).isEqualTo("SQL");
+    }
+
+    private void createLegacySchema() throws Exception {
+        // the schema the application generated with spring.jpa.generate-ddl, before there were migrations
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__baseline.sql"));
+        }
+        jdbc.update("insert into \"user\" (\"id\", \"email\", \"name\", \"lastname\", \"password\", \"locked\") values (7, 'John.Doe@acme.com', 'John', 'Doe', 'x', false)");
+        jdbc.update("insert into \"user_roles\" (\"user_id\", \"roles\") values (7, 'USER')");
+        jdbc.update("insert into \"payroll\" (\"id\", \"user_id\", \"period\", \"salary\") values (3, 7, date '2021-01-01', 123456)");
+    }
+
+    private void assertMigratedFromBaseline(Flyway flyway) {
+        assertThat(flyway.info().applied()[0].getType().name()).isEqualTo("BASELINE");
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("5");
+        assertThat(jdbc.queryForObject("select \"email\" from \"user\" where \"id\" = 7", String.class)).isEqualTo("john.doe@acme.com");
+        assertThat(jdbc.queryForObject("select count(*) from \"payroll\"", Integer.class)).isEqualTo(1);
+        // the sequences continue past the ids the identity columns handed out
+        assertThat(jdbc.queryForObject("select next value for \"user_seq\"", Long.class)).isGreaterThan(7);
+    }
+
+    private Flyway flyway() {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .placeholders(Map.of("id_allocation_size", "50"))
+                .load();
+    }
+}
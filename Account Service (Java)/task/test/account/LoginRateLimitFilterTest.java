@@ -0,0 +1,71 @@
+package account;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LoginRateLimitFilterTest {
+    private final LoginRateLimiter limiter = new LoginRateLimiter(new SimpleMeterRegistry(), 100, 0.001, 1, 0.001, 100, System::nanoTime);
+    private final UserCache userCache = mock(UserCache.class);
+    private CredentialCache credentialCache;
+    private LoginRateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        credentialCache = new CredentialCache(Duration.ofMinutes(5), 100);
+        filter = new LoginRateLimitFilter(limiter, userCache, credentialCache);
+        when(userCache.findByEmail("john@acme.com")).thenReturn(new User("John", "Doe", "john@acme.com", "{bcrypt}hash", Set.of(Role.USER)));
+    }
+
+    @Test
+    void passesUntilFailuresAreUsedUp() throws Exception {
+        assertThat(send("john@acme.com", "secret").getStatus()).isEqualTo(200);
+
+        limiter.failed("10.0.0.1", "john@acme.com");
+        MockHttpServletResponse response = send("john@acme.com", "guess");
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1000");
+    }
+
+    @Test
+    void passesVerifiedCredentialsWhileLimited() throws Exception {
+        credentialCache.verified("john@acme.com", "secret", "{bcrypt}hash");
+        limiter.failed("10.0.0.1", "john@acme.com");
+
+        assertThat(send("john@acme.com", "secret").getStatus()).isEqualTo(200);
+        assertThat(send("john@acme.com", "guess").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void ignoresRequestsWithoutBasicCredentials() throws Exception {
+        limiter.failed("127.0.0.1", "john@acme.com");
+        var request = new MockHttpServletRequest("GET", "/api/empl/payment");
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletResponse send(String username, String password) throws Exception {
+        var request = new MockHttpServletRequest("GET", "/api/empl/payment");
+        request.setRemoteAddr("10.0.0.2");
+        String credentials = Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Basic " + credentials);
+        var response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
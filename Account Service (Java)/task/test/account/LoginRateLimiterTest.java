@@ -0,0 +1,76 @@
+package account;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimiterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void neverLimitsWithoutFailures() {
+        var limiter = new LoginRateLimiter(meterRegistry, 2, 0.001, 2, 0.001, 1024, now::get);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(limiter.isLimited("10.0.0.1", "john@acme.com")).isFalse();
+        }
+    }
+
+    @Test
+    void limitsUsernameAfterItsFailures() {
+        var limiter = new LoginRateLimiter(meterRegistry, 100, 0.001, 2, 0.001, 1024, now::get);
+        limiter.failed("10.0.0.1", "john@acme.com");
+        assertThat(limiter.isLimited("10.0.0.2", "john@acme.com")).isFalse();
+        limiter.failed("10.0.0.2", "John@acme.com");
+
+        assertThat(limiter.isLimited("10.0.0.3", "john@acme.com")).isTrue();
+        assertThat(limiter.isLimited("10.0.0.3", "jane@acme.com")).isFalse();
+    }
+
+    @Test
+    void limitsIpAfterItsFailures() {
+        var limiter = new LoginRateLimiter(meterRegistry, 2, 0.001, 100, 0.001, 1024, now::get);
+        limiter.failed("10.0.0.1", "a@acme.com");
+        limiter.failed("10.0.0.1", "b@acme.com");
+
+        assertThat(limiter.isLimited("10.0.0.1", "c@acme.com")).isTrue();
+        assertThat(limiter.isLimited("10.0.0.2", "c@acme.com")).isFalse();
+        assertThat(limiter.retryAfterSeconds()).isEqualTo(1000);
+    }
+
+    @Test
+    void refills() {
+        var limiter = new LoginRateLimiter(meterRegistry, 100, 1000, 1, 50, 1024, now::get);
+        limiter.failed("10.0.0.1", "john@acme.com");
+        assertThat(limiter.isLimited("10.0.0.1", "john@acme.com")).isTrue();
+        now.addAndGet(Duration.ofMillis(19).toNanos());
+        assertThat(limiter.isLimited("10.0.0.1", "john@acme.com")).isTrue();
+        now.addAndGet(Duration.ofMillis(2).toNanos());
+
+        assertThat(limiter.isLimited("10.0.0.1", "john@acme.com")).isFalse();
+    }
+
+    @Test
+    void chargesEveryFailureWhateverElseIsSprayed() {
+        var limiter = new LoginRateLimiter(meterRegistry, 1_000_000, 0.001, 1, 0.001, 1024, now::get);
+        limiter.failed("10.0.0.1", "victim@acme.com");
+        for (int i = 0; i < 100_000; i++) limiter.failed("10.0.0.1", "spray" + i + "@acme.com");
+        limiter.failed("10.0.0.1", "late@acme.com");
+
+        assertThat(limiter.isLimited("10.0.0.2", "victim@acme.com")).isTrue();
+        assertThat(limiter.isLimited("10.0.0.2", "late@acme.com")).isTrue();
+    }
+
+    @Test
+    void sharedBucketsLimitSoonerNeverLater() {
+        var limiter = new LoginRateLimiter(meterRegistry, 100, 0.001, 1, 0.001, 1, now::get);
+        limiter.failed("10.0.0.1", "john@acme.com");
+
+        assertThat(limiter.isLimited("10.0.0.2", "john@acme.com")).isTrue();
+        assertThat(limiter.isLimited("10.0.0.2", "jane@acme.com")).isTrue();
+    }
+}
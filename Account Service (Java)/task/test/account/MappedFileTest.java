@@ -0,0 +1,53 @@
+package account;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasWritten() throws Exception {
+        Path path = dir.resolve("mapped");
+        MappedFile written = MappedFile.create(path, 32);
+        written.putInt(0, 0xCAFEBABE);
+        written.putLong(4, 0x0123456789ABCDEFL);
+        written.put(31, (byte) 0xFF);
+        written.force();
+
+        MappedFile read = MappedFile.read(path);
+        assertThat(read.size()).isEqualTo(32).isEqualTo(Files.size(path));
+        assertThat(read.getInt(0)).isEqualTo(0xCAFEBABE);
+        assertThat(read.getLong(4)).isEqualTo(0x0123456789ABCDEFL);
+        assertThat(read.get(31)).isEqualTo((byte) 0xFF);
+        byte[] bytes = new byte[4];
+        read.get(0, bytes);
+        assertThat(bytes).containsExactly(0xCA, 0xFE, 0xBA, 0xBE);
+        assertThat(read.get(12)).isZero();
+    }
+
+    @Test
+    void readsAndWritesAcrossSlices() throws Exception {
+        Path path = dir.resolve("sliced");
+        // 8-byte slices, the last one short
+        MappedFile written = MappedFile.create(path, 37, 3);
+        written.putInt(6, 0xCAFEBABE);
+        written.putLong(20, 0x0123456789ABCDEFL);
+        written.put(36, (byte) 0xFF);
+        written.force();
+
+        MappedFile read = MappedFile.read(path, 3);
+        assertThat(read.size()).isEqualTo(37).isEqualTo(Files.size(path));
+        assertThat(read.getInt(6)).isEqualTo(0xCAFEBABE);
+        assertThat(read.getLong(20)).isEqualTo(0x0123456789ABCDEFL);
+        assertThat(read.get(36)).isEqualTo((byte) 0xFF);
+        // the same bytes as one slice sees them
+        assertThat(MappedFile.read(path).getLong(20)).isEqualTo(0x0123456789ABCDEFL);
+    }
+}
@@ -0,0 +1,64 @@
+package account;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentResponseSerializerTest {
+    private final ObjectMapper mapper = JsonMapper.builder().findAndAddModules().build();
+
+    @Test
+    void writesPeriodAndSalaryAsText() throws Exception {
+        var response = new EmployeeController.PaymentResponse("John", "Doe", YearMonth.of(2021, 1), 123456);
+
+        assertThat(mapper.writeValueAsString(response))
+                .isEqualTo("{\"name\":\"John\",\"lastname\":\"Doe\",\"period\":\"January-2021\",\"salary\":\"1234 dollar(s) 56 cent(s)\"}");
+    }
+
+    @Test
+    void matchesTheOldFormat() throws Exception {
+        List<EmployeeController.PaymentResponse> responses = new ArrayList<>();
+        List<LegacyPaymentResponse> legacy = new ArrayList<>();
+        long[] salaries = {0, 5, 99, 100, 101, 123456, 1_000_000_07L, Long.MAX_VALUE};
+        YearMonth[] periods = {YearMonth.of(1, 1), YearMonth.of(999, 5), YearMonth.of(2021, 9), YearMonth.of(9999, 12), YearMonth.of(10000, 2)};
+        for (long salary : salaries) {
+            for (YearMonth period : periods) {
+                responses.add(new EmployeeController.PaymentResponse("J\u00f6hn \"J\"", "Doe", period, salary));
+                legacy.add(new LegacyPaymentResponse("J\u00f6hn \"J\"", "Doe", period, salary));
+            }
+        }
+
+        assertThat(mapper.writeValueAsString(responses)).isEqualTo(mapper.writeValueAsString(legacy));
+    }
+
+    @Test
+    void ignoresDefaultLocale() throws Exception {
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            var response = new EmployeeController.PaymentResponse("John", "Doe", YearMonth.of(2021, 3), 100);
+
+            assertThat(mapper.writeValueAsString(response)).contains("\"period\":\"March-2021\"", "\"salary\":\"1 dollar(s) 0 cent(s)\"");
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    /*
+    The payslip as it was serialised before PaymentResponseSerializer.
+     */
+    record LegacyPaymentResponse(String name, String lastname, @JsonFormat(pattern = "MMMM-yyyy", locale = "en") YearMonth period,
+                                 String salary) {
+        LegacyPaymentResponse(String name, String lastname, YearMonth period, long salary) {
+            this(name, lastname, period, "%d dollar(s) %d cent(s)".formatted(salary / 100, salary % 100));
+        }
+    }
+}
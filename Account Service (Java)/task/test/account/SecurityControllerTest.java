@@ -0,0 +1,118 @@
+package account;
+
+import account.CursorPages.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:security-controller",
+        "server.ssl.enabled=false",
+        "account.security-events.page-size=4",
+        "account.security-events.max-page-size=5",
+})
+@AutoConfigureMockMvc
+class SecurityControllerTest {
+    private static final LocalDate DAY = LocalDate.of(2021, 1, 1);
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    SecurityEventRepository securityEventRepository;
+    private User auditor;
+
+    @BeforeEach
+    void setUp() {
+        securityEventRepository.deleteAll();
+        auditor = userRepository.findByEmail("auditor@acme.com");
+        if (auditor == null) auditor = userRepository.save(new User("Ann", "Doe", "auditor@acme.com", "", Set.of(Role.AUDITOR)));
+    }
+
+    @Test
+    void pagesThroughEventsWithEqualDates() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) ids.add(event(Action.LOGIN_FAILED, DAY, "john@acme.com"));
+
+        List<Page<Long>> pages = CursorPages.follow("from=2021-01-01&to=2021-01-01&limit=3", "after", this::page);
+
+        assertThat(pages).extracting(Page::items).containsExactly(ids.subList(0, 3), ids.subList(3, 6), ids.subList(6, 7));
+        assertThat(pages).extracting(Page::next).containsExactly(Long.toString(ids.get(2)), Long.toString(ids.get(5)), null);
+    }
+
+    @Test
+    void fullLastPageIsFollowedByAnEmptyOne() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 4; i++) ids.add(event(Action.LOGIN_FAILED, DAY, null));
+
+        List<Page<Long>> pages = CursorPages.follow("limit=2", "after", this::page);
+
+        CursorPages.assertFullLastPageIsFollowedByAnEmptyOne(pages, 2);
+        assertThat(pages).extracting(Page::items).containsExactly(ids.subList(0, 2), ids.subList(2, 4), List.of());
+    }
+
+    @Test
+    void cursorSkipsEventsOutsideTheFilter() throws Exception {
+        List<Long> denied = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            event(Action.LOGIN_FAILED, DAY, null);
+            denied.add(event(Action.ACCESS_DENIED, DAY.plusDays(i), "john@acme.com"));
+            event(Action.ACCESS_DENIED, DAY.plusDays(i), "jane@acme.com");
+        }
+
+        List<Long> paged = new ArrayList<>();
+        for (Page<Long> page : CursorPages.follow("action=ACCESS_DENIED&subject=john@acme.com&limit=2", "after", this::page)) {
+            paged.addAll(page.items());
+        }
+
+        assertThat(paged).isEqualTo(denied);
+        assertThat(page("subject=Anonymous&limit=5").items()).hasSize(5);
+    }
+
+    @Test
+    void limitsPageSize() throws Exception {
+        for (int i = 0; i < 7; i++) event(Action.LOGIN_FAILED, DAY, null);
+
+        assertThat(page("").items()).hasSize(4);
+        assertThat(page("limit=100").items()).hasSize(5);
+        assertThat(page("limit=0").items()).hasSize(1);
+    }
+
+    private long event(Action action, LocalDate date, String subject) {
+        var event = new SecurityEvent();
+        event.action = action;
+        event.date = date;
+        event.subject = subject;
+        event.object = "/api/empl/payment";
+        event.path = "/api/empl/payment";
+        return securityEventRepository.save(event).id;
+    }
+
+    private Page<Long> page(String query) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/security/events/?" + query)
+                        .with(SecurityMockMvcRequestPostProcessors.authentication(
+                                UsernamePasswordAuthenticationToken.authenticated(auditor, null, auditor.getAuthorities()))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return CursorPages.read(result, objectMapper, event -> event.get("id").asLong());
+    }
+}
@@ -0,0 +1,103 @@
+package account;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SecurityEventJournalTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SecurityEventRepository repository = mock(SecurityEventRepository.class);
+    private final List<List<SecurityEvent>> saves = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean down = new AtomicBoolean();
+    private SecurityEventJournal journal;
+
+    SecurityEventJournalTest() {
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            List<SecurityEvent> events = new ArrayList<>();
+            invocation.<Iterable<SecurityEvent>>getArgument(0).forEach(events::add);
+            if (down.get()) {
+                events.forEach(e -> e.id = 42);
+                throw new DataAccessResourceFailureException("database is down");
+            }
+            saves.add(events);
+            return events;
+        });
+    }
+
+    @AfterEach
+    void shutdown() throws Exception {
+        down.set(false);
+        journal.shutdown();
+    }
+
+    @Test
+    void readersWaitOnlyForPendingEvents() {
+        journal = journal(10, Duration.ofHours(1));
+        assertThat(journal.awaitWritten(Duration.ZERO)).isTrue();
+        List<SecurityEvent> events = List.of(event(), event(), event());
+        events.forEach(journal::append);
+
+        // the writer saves now rather than at the end of its hour
+        assertThat(journal.awaitWritten(Duration.ofSeconds(10))).isTrue();
+        assertThat(saves).containsExactly(events);
+        assertThat(journal.awaitWritten(Duration.ZERO)).isTrue();
+        assertThat(saves).hasSize(1);
+    }
+
+    @Test
+    void retriesFailedBatches() {
+        journal = journal(10, Duration.ofMillis(10));
+        down.set(true);
+        List<SecurityEvent> events = List.of(event(), event());
+        events.forEach(journal::append);
+
+        assertThat(journal.awaitWritten(Duration.ofMillis(50))).isFalse();
+        down.set(false);
+
+        assertThat(journal.awaitWritten(Duration.ofSeconds(10))).isTrue();
+        assertThat(saves).containsExactly(events);
+        assertThat(events).allMatch(e -> e.id == 0);
+        assertThat(meterRegistry.get("account.security.events.failed").counter().count()).isGreaterThanOrEqualTo(2);
+        assertThat(meterRegistry.get("account.security.events.written").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void failsAppendsOnceTheQueueStaysFull() {
+        journal = journal(1, Duration.ofHours(1));
+        down.set(true);
+        SecurityEvent first = event();
+        SecurityEvent second = event();
+        journal.append(first);
+        // waits for the writer to take the first event, which it then can't save
+        journal.append(second);
+
+        assertThatThrownBy(() -> journal.append(event())).isInstanceOf(SecurityEventJournal.JournalUnavailableException.class);
+        assertThat(meterRegistry.get("account.security.events.backpressure").counter().count()).isEqualTo(2);
+        down.set(false);
+
+        assertThat(journal.awaitWritten(Duration.ofSeconds(10))).isFalse();
+    }
+
+    private SecurityEventJournal journal(int queueCapacity, Duration flushInterval) {
+        return new SecurityEventJournal(repository, meterRegistry, queueCapacity, 100, flushInterval, Duration.ofMillis(100), false);
+    }
+
+    private static SecurityEvent event() {
+        var event = new SecurityEvent();
+        event.action = Action.LOGIN_FAILED;
+        return event;
+    }
+}
@@ -0,0 +1,163 @@
+package account;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:token-service",
+        "server.ssl.enabled=false",
+})
+class TokenServiceTest {
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    UserDetailsService userDetailsService;
+    @Autowired
+    TokenService applicationTokens;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        user = userRepository.save(new User("John", "Doe", "john@acme.com", "", Set.of(Role.USER, Role.ACCOUNTANT)));
+    }
+
+    @Test
+    void verifiesIssuedTokens() throws Exception {
+        var tokens = tokenService(Duration.ofMinutes(15), Duration.ofSeconds(5));
+        var token = tokens.issue(user);
+
+        User verified = tokens.verify(token.token());
+        assertThat(token.expiresIn()).isEqualTo(900);
+        assertThat(verified.id).isEqualTo(user.id);
+        assertThat(verified.email).isEqualTo("john@acme.com");
+        assertThat(verified.name).isEqualTo("John");
+        assertThat(verified.lastname).isEqualTo("Doe");
+        assertThat(verified.roles).containsExactlyInAnyOrder(Role.USER, Role.ACCOUNTANT);
+        // any instance with the same secret accepts it
+        assertThat(tokenService(Duration.ofMinutes(15), Duration.ofSeconds(5)).verify(token.token())).isNotNull();
+    }
+
+    @Test
+    void rejectsMalformedOrForgedTokens() throws Exception {
+        var tokens = tokenService(Duration.ofMinutes(15), Duration.ofSeconds(5));
+        String token = tokens.issue(user).token();
+        String payload = token.substring(0, token.indexOf('.'));
+        String signature = token.substring(token.indexOf('.') + 1);
+        String otherPayload = tokens.issue(userRepository.save(new User("Jane", "Doe", "jane@acme.com", "", Set.of(Role.USER)))).token().split("\\.")[0];
+        var foreign = new TokenService(userRepository, "", false, Duration.ofMinutes(15), Duration.ofSeconds(5));
+
+        assertThat(tokens.verify("")).isNull();
+        assertThat(tokens.verify("no-dot")).isNull();
+        assertThat(tokens.verify(payload + ".!!")).isNull();
+        assertThat(tokens.verify(otherPayload + "." + signature)).isNull();
+        assertThat(tokens.verify(payload + "." + signature.substring(1))).isNull();
+        assertThat(tokens.verify(foreign.issue(user).token())).isNull();
+    }
+
+    @Test
+    void rejectsExpiredTokens() throws Exception {
+        var tokens = tokenService(Duration.ZERO, Duration.ofSeconds(5));
+
+        assertThat(tokens.verify(tokens.issue(user).token())).isNull();
+    }
+
+    @Test
+    void revokesOnEveryInstance() throws Exception {
+        var first = tokenService(Duration.ofMinutes(15), Duration.ofSeconds(5));
+        var second = tokenService(Duration.ofMinutes(15), Duration.ZERO);
+        var stale = tokenService(Duration.ofMinutes(15), Duration.ofHours(1));
+        String revoked = first.issue(user).token();
+        assertThat(stale.verify(revoked)).isNotNull();
+
+        first.revoke(user.email);
+
+        assertThat(first.verify(revoked)).isNull();
+        assertThat(second.verify(revoked)).isNull();
+        // until it reads the version again
+        assertThat(stale.verify(revoked)).isNotNull();
+        String reissued = second.issue(user).token();
+        assertThat(first.verify(reissued)).isNotNull();
+        assertThat(second.verify(reissued)).isNotNull();
+    }
+
+    @Test
+    void savingALoadedUserKeepsTheRevocation() throws Exception {
+        var tokens = tokenService(Duration.ofMinutes(15), Duration.ZERO);
+        String token = tokens.issue(user).token();
+        User loaded = userRepository.findByEmail(user.email);
+
+        tokens.revoke(user.email);
+        loaded.locked = true;
+        userRepository.save(loaded);
+
+        assertThat(userRepository.findTokenVersionByEmail(user.email)).isEqualTo(1);
+        assertThat(tokens.verify(token)).isNull();
+    }
+
+    @Test
+    void takesTheLockStateFromTheVersionRead() throws Exception {
+        var tokens = tokenService(Duration.ofMinutes(15), Duration.ZERO);
+        String token = tokens.issue(user).token();
+        assertThat(tokens.verify(token).locked).isFalse();
+
+        // locked without a revocation, which the version check alone would miss
+        User loaded = userRepository.findByEmail(user.email);
+        loaded.locked = true;
+        userRepository.save(loaded);
+
+        assertThat(tokens.verify(token).locked).isTrue();
+    }
+
+    @Test
+    void requiresTheSecretWhenAsked() {
+        assertThatThrownBy(() -> new TokenService(userRepository, "", true, Duration.ofMinutes(15), Duration.ofSeconds(5)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void userChangesRevokeTokensButRehashingDoesNot() throws Exception {
+        String token = applicationTokens.issue(user).token();
+        userDetailsService.updatePassword((UserDetails) user, "{bcrypt}rehashed");
+        assertThat(applicationTokens.verify(token)).isNotNull();
+
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        try {
+            userDetailsService.removeRole(user.email, "ACCOUNTANT");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        // the token still claims ACCOUNTANT
+        assertThat(applicationTokens.verify(token)).isNull();
+        assertThat(applicationTokens.verify(applicationTokens.issue(userRepository.findByEmail(user.email)).token()).roles).containsExactly(Role.USER);
+    }
+
+    @Test
+    void rejectsTokensOfDeletedUsers() throws Exception {
+        var tokens = tokenService(Duration.ofMinutes(15), Duration.ZERO);
+        String token = tokens.issue(user).token();
+
+        userRepository.delete(user);
+
+        assertThat(tokens.verify(token)).isNull();
+    }
+
+    private TokenService tokenService(Duration ttl, Duration versionCheck) throws Exception {
+        return new TokenService(userRepository, SECRET, false, ttl, versionCheck);
+    }
+}